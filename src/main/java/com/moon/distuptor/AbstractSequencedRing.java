@@ -0,0 +1,122 @@
+package com.moon.distuptor;
+
+import com.moon.distuptor.dsl.ProducerType;
+
+/**
+ * 不使用Object[]存放事件的环形数组的公共父类，比如堆外内存的记录环形数组、基本类型的环形数组
+ * 这些环形数组只是存放数据的方式不同，申请序号、发布、消费者的序号屏障和进度这些逻辑仍然全部交给Sequencer
+ * 所以它们都可以直接和SequenceBarrier、BatchEventProcessor、EventPoller一起使用
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public abstract class AbstractSequencedRing implements Cursored, Sequenced {
+
+    protected final Sequencer sequencer;
+
+    protected final int bufferSize;
+
+    protected AbstractSequencedRing(final Sequencer sequencer) {
+        this.sequencer = sequencer;
+        this.bufferSize = sequencer.getBufferSize();
+
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must not be less than 1");
+        }
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+    }
+
+    /**
+     * 按照生产者类型创建序号生成器
+     */
+    protected static Sequencer newSequencer(
+            final ProducerType producerType, final int bufferSize,
+            final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy) {
+        switch (producerType) {
+            case SINGLE:
+                return new SingleProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy);
+            case MULTI:
+                return new MultiProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy);
+            case MULTI_COMBINING:
+                return new CombiningMultiProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy);
+            default:
+                throw new IllegalStateException(producerType.toString());
+        }
+    }
+
+    @Override
+    public long getCursor() {
+        return sequencer.getCursor();
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity) {
+        return sequencer.hasAvailableCapacity(requiredCapacity);
+    }
+
+    @Override
+    public long remainingCapacity() {
+        return sequencer.remainingCapacity();
+    }
+
+    @Override
+    public long next() {
+        return sequencer.next();
+    }
+
+    @Override
+    public long next(final int n) {
+        return sequencer.next(n);
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException {
+        return sequencer.tryNext();
+    }
+
+    @Override
+    public long tryNext(final int n) throws InsufficientCapacityException {
+        return sequencer.tryNext(n);
+    }
+
+    @Override
+    public long tryNextSequence(final int n) {
+        return sequencer.tryNextSequence(n);
+    }
+
+    @Override
+    public void publish(final long sequence) {
+        sequencer.publish(sequence);
+    }
+
+    @Override
+    public void publish(final long lo, final long hi) {
+        sequencer.publish(lo, hi);
+    }
+
+    //把消费者的消费序号添加到gatingSequences数组中
+    public void addGatingSequences(final Sequence... gatingSequences) {
+        sequencer.addGatingSequences(gatingSequences);
+    }
+
+    public boolean removeGatingSequence(final Sequence sequence) {
+        return sequencer.removeGatingSequence(sequence);
+    }
+
+    //得到所有消费者序号和当前生产者序号中最小的那个序号
+    public long getMinimumGatingSequence() {
+        return sequencer.getMinimumSequence();
+    }
+
+    //为消费者创建序号屏障
+    public SequenceBarrier newBarrier(final Sequence... sequencesToTrack) {
+        return sequencer.newBarrier(sequencesToTrack);
+    }
+}
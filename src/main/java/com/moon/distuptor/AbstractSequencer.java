@@ -2,8 +2,9 @@ package com.moon.distuptor;
 
 import com.moon.distuptor.util.Util;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * 单生产者的序号生成器
@@ -16,8 +17,15 @@ public abstract class AbstractSequencer implements Sequencer {
     /**
      * 对gatingSequences属性进行原子更新
      */
-    private static final AtomicReferenceFieldUpdater<AbstractSequencer, Sequence[]> SEQUENCE_UPDATER =
-            AtomicReferenceFieldUpdater.newUpdater(AbstractSequencer.class, Sequence[].class, "gatingSequences");
+    private static final VarHandle SEQUENCE_UPDATER;
+
+    static {
+        try {
+            SEQUENCE_UPDATER = MethodHandles.lookup().findVarHandle(AbstractSequencer.class, "gatingSequences", Sequence[].class);
+        } catch (final Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
 
     protected final int bufferSize;
 
@@ -26,6 +34,11 @@ public abstract class AbstractSequencer implements Sequencer {
      */
     protected final WaitStrategy waitStrategy;
 
+    /**
+     * 生产者的等待策略，环形数组满了之后生产者怎么等待
+     */
+    protected final ProducerWaitStrategy producerWaitStrategy;
+
     /**
      * 生产者的生产进度
      */
@@ -36,7 +49,16 @@ public abstract class AbstractSequencer implements Sequencer {
      */
     protected volatile Sequence[] gatingSequences = new Sequence[0];
 
+    /**
+     * 消费者超过MinimumSequenceTree.FANOUT个时，用最小值树缓存所有消费者进度的下界，避免每次都线性扫描
+     */
+    private volatile MinimumSequenceTree gatingTree;
+
     public AbstractSequencer(int bufferSize, WaitStrategy waitStrategy) {
+        this(bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public AbstractSequencer(int bufferSize, WaitStrategy waitStrategy, ProducerWaitStrategy producerWaitStrategy) {
         if (bufferSize < 1) {
             throw new IllegalArgumentException("bufferSize must not be less than 1");
         }
@@ -47,6 +69,7 @@ public abstract class AbstractSequencer implements Sequencer {
         //在这里给环形数组容量和等待策略赋值
         this.bufferSize = bufferSize;
         this.waitStrategy = waitStrategy;
+        this.producerWaitStrategy = producerWaitStrategy;
     }
 
     @Override
@@ -62,11 +85,14 @@ public abstract class AbstractSequencer implements Sequencer {
     @Override
     public final void addGatingSequences(Sequence... gatingSequences) {
         SequenceGroups.addSequences(this, SEQUENCE_UPDATER, this, gatingSequences);
+        rebuildGatingTree();
     }
 
     @Override
     public boolean removeGatingSequence(Sequence sequence) {
-        return SequenceGroups.removeSequence(this, SEQUENCE_UPDATER, sequence);
+        final boolean removed = SequenceGroups.removeSequence(this, SEQUENCE_UPDATER, sequence);
+        rebuildGatingTree();
+        return removed;
     }
 
     @Override
@@ -74,17 +100,59 @@ public abstract class AbstractSequencer implements Sequencer {
         return Util.getMinimumSequence(gatingSequences, cursor.get());
     }
 
+    @Override
+    public long getMinimumSequence(long wrapPoint) {
+        return minimumGatingSequence(wrapPoint, cursor.get());
+    }
+
+    @Override
+    public void signalProducers(Sequence consumerSequence) {
+        // 先更新最小值树，再唤醒生产者，这样被唤醒的生产者读到的就是最新的下界
+        final MinimumSequenceTree tree = gatingTree;
+        if (tree != null) {
+            tree.update(consumerSequence);
+        }
+        producerWaitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * 得到最慢的消费者进度，结果不会超过minimum
+     * 如果最小值树上的下界已经不小于wrapPoint，就直接返回这个下界，只有不够用时才扫描所有消费者
+     */
+    protected final long minimumGatingSequence(final long wrapPoint, final long minimum) {
+        final MinimumSequenceTree tree = gatingTree;
+        if (tree != null) {
+            final long lowerBound = Math.min(tree.get(), minimum);
+            if (lowerBound >= wrapPoint) {
+                return lowerBound;
+            }
+        }
+        return Util.getMinimumSequence(gatingSequences, minimum);
+    }
+
+    private void rebuildGatingTree() {
+        final Sequence[] sequences = gatingSequences;
+        gatingTree = sequences.length > MinimumSequenceTree.FANOUT ? new MinimumSequenceTree(sequences) : null;
+    }
+
     @Override
     public SequenceBarrier newBarrier(Sequence... sequencesToTrack)
     {
         return new ProcessingSequenceBarrier(this, waitStrategy, cursor, sequencesToTrack);
     }
 
+    @Override
+    public <T> EventPoller<T> newPoller(DataProvider<T> dataProvider, Sequence... gatingSequences)
+    {
+        return EventPoller.newInstance(dataProvider, this, new Sequence(), cursor, gatingSequences);
+    }
+
     @Override
     public String toString()
     {
         return "AbstractSequencer{" +
                 "waitStrategy=" + waitStrategy +
+                ", producerWaitStrategy=" + producerWaitStrategy +
                 ", cursor=" + cursor +
                 ", gatingSequences=" + Arrays.toString(gatingSequences) +
                 '}';
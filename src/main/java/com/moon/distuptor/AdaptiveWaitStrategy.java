@@ -0,0 +1,220 @@
+package com.moon.distuptor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应的等待策略，为每个序号屏障统计消费者最近等待数据的平均时间，据此在运行时调整等待方式
+ * 数据密集到达时平均等待时间很短，就空转等待；数据稀疏时平均等待时间变长，就先让出CPU，再挂起线程
+ * 当前采用的等待方式可以通过getMode查询，方便监控
+ * 统计信息由策略自己保存，每个消费者线程缓存自己上一次用到的屏障和统计信息，等待时只比较一次引用，不需要查表
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class AdaptiveWaitStrategy implements WaitStrategy {
+
+    /**
+     * 等待方式
+     */
+    public enum Mode {
+        /**
+         * 空转，延迟最低
+         */
+        SPIN,
+
+        /**
+         * 让出CPU
+         */
+        YIELD,
+
+        /**
+         * 挂起线程，几乎不占用CPU
+         */
+        PARK
+    }
+
+    private static final long DEFAULT_SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long DEFAULT_YIELD_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 指数移动平均的权重，新的样本占1/8
+     */
+    private static final int AVERAGE_SHIFT = 3;
+
+    /**
+     * 每个序号屏障的统计信息，同一个屏障可能被同一组的多个消费者共享，统计结果只是一个估计值，并发更新时不需要精确
+     */
+    private static final class BarrierStats {
+        volatile long averageWaitNanos;
+
+        volatile Mode mode = Mode.SPIN;
+    }
+
+    /**
+     * 消费者线程上一次等待的屏障和它的统计信息，一个消费者线程通常只在一个屏障上等待
+     */
+    private static final class CachedStats {
+        SequenceBarrier barrier;
+
+        BarrierStats stats;
+    }
+
+    /**
+     * 所有屏障的统计信息，只在线程换了屏障以及查询时访问，弱引用的key，屏障被回收后对应的统计信息也会被清除
+     */
+    private final Map<SequenceBarrier, BarrierStats> barrierStats = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final ThreadLocal<CachedStats> cachedStats = ThreadLocal.withInitial(CachedStats::new);
+
+    private final long spinThresholdNanos;
+
+    private final long yieldThresholdNanos;
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition processorNotifyCondition = lock.newCondition();
+
+    private final AtomicBoolean signalNeeded = new AtomicBoolean(false);
+
+    public AdaptiveWaitStrategy() {
+        this(DEFAULT_SPIN_THRESHOLD_NANOS, DEFAULT_YIELD_THRESHOLD_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param spinThreshold  平均等待时间小于它时空转等待
+     * @param yieldThreshold 平均等待时间小于它时让出CPU，否则挂起线程
+     */
+    public AdaptiveWaitStrategy(final long spinThreshold, final long yieldThreshold, final TimeUnit units) {
+        this.spinThresholdNanos = units.toNanos(spinThreshold);
+        this.yieldThresholdNanos = units.toNanos(yieldThreshold);
+        if (spinThresholdNanos > yieldThresholdNanos) {
+            throw new IllegalArgumentException("spinThreshold must not be greater than yieldThreshold");
+        }
+    }
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursor, final Sequence dependentSequence, final SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        final BarrierStats stats = statsFor(barrier);
+
+        long availableSequence = dependentSequence.getAcquire();
+        if (availableSequence >= sequence) {
+            // 数据已经到了，一次都不用等，不需要读取时间
+            record(stats, 0L);
+            return availableSequence;
+        }
+
+        // 根据当前的等待方式决定空转和让出CPU各自的时间预算，超过预算就进入下一个阶段
+        final Mode mode = stats.mode;
+        final long spinBudget = mode == Mode.SPIN ? yieldThresholdNanos >> 1 : 0L;
+        final long yieldBudget = mode == Mode.PARK ? spinThresholdNanos : yieldThresholdNanos;
+        final long startTime = System.nanoTime();
+        long parkNanos = MIN_PARK_NANOS;
+
+        while ((availableSequence = dependentSequence.getAcquire()) < sequence) {
+            barrier.checkAlert();
+
+            final long waited = System.nanoTime() - startTime;
+            if (waited < spinBudget) {
+                Thread.onSpinWait();
+            } else if (waited < yieldBudget) {
+                Thread.yield();
+            } else {
+                park(sequence, cursor, barrier, parkNanos);
+                parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+            }
+        }
+
+        record(stats, System.nanoTime() - startTime);
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        if (signalNeeded.getAndSet(false)) {
+            lock.lock();
+            try {
+                processorNotifyCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 查询某个序号屏障当前采用的等待方式，还没有等待过的屏障返回SPIN
+     */
+    public Mode getMode(final SequenceBarrier barrier) {
+        final BarrierStats stats = existingStats(barrier);
+        return stats == null ? Mode.SPIN : stats.mode;
+    }
+
+    /**
+     * 查询某个序号屏障最近的平均等待时间，单位是纳秒
+     */
+    public long getAverageWaitNanos(final SequenceBarrier barrier) {
+        final BarrierStats stats = existingStats(barrier);
+        return stats == null ? 0L : stats.averageWaitNanos;
+    }
+
+    /**
+     * 先看当前线程缓存的是不是同一个屏障，不是才去查表，同一个屏障被多个消费者共享时它们拿到的是同一份统计信息
+     */
+    private BarrierStats statsFor(final SequenceBarrier barrier) {
+        final CachedStats cached = cachedStats.get();
+        if (cached.barrier != barrier) {
+            cached.stats = barrierStats.computeIfAbsent(barrier, b -> new BarrierStats());
+            cached.barrier = barrier;
+        }
+        return cached.stats;
+    }
+
+    private BarrierStats existingStats(final SequenceBarrier barrier) {
+        return barrierStats.get(barrier);
+    }
+
+    /**
+     * 挂起一段时间，生产者发布数据后会提前唤醒
+     * 如果等待的是上游消费者，上游不会发出唤醒信号，所以这里一定要带超时
+     */
+    private void park(final long sequence, final Sequence cursor, final SequenceBarrier barrier, final long parkNanos)
+            throws AlertException, InterruptedException {
+        lock.lock();
+        try {
+            signalNeeded.getAndSet(true);
+            if (cursor.getAcquire() >= sequence) {
+                // 生产者已经发布了，只是上游消费者还没处理完，短暂挂起后重新检查
+                processorNotifyCondition.awaitNanos(MIN_PARK_NANOS);
+                return;
+            }
+            barrier.checkAlert();
+            processorNotifyCondition.awaitNanos(parkNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(final BarrierStats stats, final long waitNanos) {
+        final long average = stats.averageWaitNanos;
+        final long updated = average + ((waitNanos - average) >> AVERAGE_SHIFT);
+        if (updated == average) {
+            // 持续密集到达时平均值一直是0，不用反复写入
+            return;
+        }
+        stats.averageWaitNanos = updated;
+
+        final Mode mode = updated < spinThresholdNanos ? Mode.SPIN : updated < yieldThresholdNanos ? Mode.YIELD : Mode.PARK;
+        if (mode != stats.mode) {
+            stats.mode = mode;
+        }
+    }
+}
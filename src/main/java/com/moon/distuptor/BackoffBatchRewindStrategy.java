@@ -0,0 +1,45 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 有限次数的重试，每次重新处理之前挂起一段时间，挂起时间按指数增长直到上限
+ * 适合下游数据库、网络短暂不可用的场景，给下游恢复的时间，连续失败达到最大次数之后放弃
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class BackoffBatchRewindStrategy implements BatchRewindStrategy {
+
+    private final int maxAttempts;
+
+    private final long initialPauseNanos;
+
+    private final long maxPauseNanos;
+
+    public BackoffBatchRewindStrategy(final int maxAttempts, final long initialPause, final long maxPause, final TimeUnit units) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be > 0");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialPauseNanos = units.toNanos(initialPause);
+        this.maxPauseNanos = units.toNanos(maxPause);
+        if (initialPauseNanos < 0 || initialPauseNanos > maxPauseNanos) {
+            throw new IllegalArgumentException("initialPause must be >= 0 and not greater than maxPause");
+        }
+    }
+
+    @Override
+    public RewindAction handleRewindException(final RewindableException e, final int attempts) {
+        if (attempts >= maxAttempts) {
+            return RewindAction.THROW;
+        }
+
+        // 第n次失败挂起initialPause * 2^(n-1)，移位次数有上限，避免溢出
+        final int shift = Math.min(attempts - 1, 30);
+        final long pauseNanos = Math.min(initialPauseNanos << shift, maxPauseNanos);
+        LockSupport.parkNanos(pauseNanos < 0 ? maxPauseNanos : pauseNanos);
+        return RewindAction.REWIND;
+    }
+}
@@ -0,0 +1,65 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 渐进退避的生产者等待策略：先空转，再让出CPU，最后休眠，每次休眠的时间翻倍，直到maxParkNanos
+ * 消费者长时间跟不上时，生产者几乎不占用CPU
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class BackoffProducerWaitStrategy implements ProducerWaitStrategy {
+
+    private static final int DEFAULT_SPIN_TRIES = 100;
+    private static final int DEFAULT_YIELD_TRIES = 100;
+    private static final long DEFAULT_MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final int spinTries;
+
+    private final int yieldTries;
+
+    private final long maxParkNanos;
+
+    public BackoffProducerWaitStrategy() {
+        this(DEFAULT_SPIN_TRIES, DEFAULT_YIELD_TRIES, DEFAULT_MAX_PARK_NANOS);
+    }
+
+    public BackoffProducerWaitStrategy(final int spinTries, final int yieldTries, final long maxParkNanos) {
+        if (maxParkNanos < 1) {
+            throw new IllegalArgumentException("maxParkNanos must be > 0");
+        }
+        this.spinTries = spinTries;
+        this.yieldTries = yieldTries;
+        this.maxParkNanos = maxParkNanos;
+    }
+
+    @Override
+    public long waitFor(long wrapPoint, Sequencer sequencer) {
+        long minSequence;
+        int counter = 0;
+        long parkNanos = 1L;
+        while (wrapPoint > (minSequence = sequencer.getMinimumSequence(wrapPoint))) {
+            if (counter < spinTries) {
+                // 空转
+                Thread.onSpinWait();
+                counter++;
+            } else if (counter < spinTries + yieldTries) {
+                // 放弃CPU
+                Thread.yield();
+                counter++;
+            } else {
+                // 休眠，时间逐步翻倍
+                LockSupport.parkNanos(parkNanos);
+                parkNanos = Math.min(parkNanos << 1, maxParkNanos);
+            }
+        }
+        return minSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+
+    }
+}
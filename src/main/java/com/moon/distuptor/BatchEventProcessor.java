@@ -32,11 +32,36 @@ public final class BatchEventProcessor<T>
     //消费者开始真正工作时的一个回调接口，其实也是一个扩展点
     //用户可以定义这个接口的实现类，在消费者开始工作的时候，执行该接口实现类中定义的方法
     private final BatchStartAware batchStartAware;
+    //一批最多处理多少个事件，环形数组很大时，一批处理的时间太长会让下游消费者迟迟拿不到数据
+    private int maxBatchSize = Integer.MAX_VALUE;
+    //批处理过程中每处理多少个事件就提前发布一次消费进度，0表示只在一批结束时发布
+    private int progressReleaseInterval = 0;
+    //批次重放策略，只有RewindableEventHandler才会用到，其他handler抛出异常时仍然跳过该事件
+    private final BatchRewindStrategy batchRewindStrategy;
 
     public BatchEventProcessor(
             final DataProvider<T> dataProvider,
             final SequenceBarrier sequenceBarrier,
             final EventHandler<? super T> eventHandler) {
+        this(dataProvider, sequenceBarrier, eventHandler, null);
+    }
+
+    public BatchEventProcessor(
+            final DataProvider<T> dataProvider,
+            final SequenceBarrier sequenceBarrier,
+            final RewindableEventHandler<? super T> eventHandler,
+            final BatchRewindStrategy batchRewindStrategy) {
+        this(dataProvider, sequenceBarrier, (EventHandler<? super T>) eventHandler, batchRewindStrategy);
+        if (batchRewindStrategy == null) {
+            throw new NullPointerException("batchRewindStrategy");
+        }
+    }
+
+    private BatchEventProcessor(
+            final DataProvider<T> dataProvider,
+            final SequenceBarrier sequenceBarrier,
+            final EventHandler<? super T> eventHandler,
+            final BatchRewindStrategy batchRewindStrategy) {
         this.dataProvider = dataProvider;
         this.sequenceBarrier = sequenceBarrier;
         this.eventHandler = eventHandler;
@@ -44,6 +69,7 @@ public final class BatchEventProcessor<T>
                 (eventHandler instanceof BatchStartAware) ? (BatchStartAware) eventHandler : null;
         timeoutHandler =
                 (eventHandler instanceof TimeoutHandler) ? (TimeoutHandler) eventHandler : null;
+        this.batchRewindStrategy = batchRewindStrategy;
     }
 
     //得到当前消费者的消费进度，序号就是进度
@@ -58,8 +84,8 @@ public final class BatchEventProcessor<T>
         //因为要终止了，所以先把状态改为停止状态
         running.set(HALTED);
         //这里会把阻塞的消费处理器唤醒，然后去响应这个终止的状态，就像是线程中断
-        //注意，在第一个版本，大家顺着这个方法点进去，会发现最后在等待策略的实现类中，signalAllWhenBlocking
-        //方法是一个空实现，实际上在程序中有很多等待策略，我还没有为大家引入，后面会依次引入的
+        //顺着这个方法点进去，最后会调用到等待策略的signalAllWhenBlocking方法，像BlockingWaitStrategy这种
+        //会挂起消费者线程的等待策略，就是在这里把消费者唤醒的
         sequenceBarrier.alert();
     }
 
@@ -78,6 +104,25 @@ public final class BatchEventProcessor<T>
         this.exceptionHandler = exceptionHandler;
     }
 
+    //设置一批最多处理的事件个数，必须在处理器启动之前调用
+    public void setMaxBatchSize(final int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be > 0");
+        }
+
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    //设置批处理过程中发布消费进度的间隔，0表示关闭，必须在处理器启动之前调用
+    //提前发布进度可以让被环形数组容量挡住的生产者更早地继续工作，代价是多了几次写进度的操作
+    public void setProgressReleaseInterval(final int progressReleaseInterval) {
+        if (progressReleaseInterval < 0) {
+            throw new IllegalArgumentException("progressReleaseInterval must be >= 0");
+        }
+
+        this.progressReleaseInterval = progressReleaseInterval;
+    }
+
 
     @Override
     public void run() {
@@ -118,28 +163,63 @@ public final class BatchEventProcessor<T>
         T event = null;
         //sequence是当前消费者自身的消费进度，这个get方法得到的就是当前的消费进度
         long nextSequence = sequence.get() + 1L;
+        //这两个配置在启动后不会再变，读到局部变量里
+        final int maxBatchSize = this.maxBatchSize;
+        final int progressReleaseInterval = this.progressReleaseInterval;
+        //本批次连续失败重放的次数
+        int retriesAttempted = 0;
         //在一个循环中开始执行真正的消费任务了
         while (true) {
+            //本批次中第一个还没有提交消费进度的序号，重放时从这里开始
+            long firstUncommittedSequence = nextSequence;
             try {
-
-                final long availableSequence = sequenceBarrier.waitFor(nextSequence);
-                if (batchStartAware != null) {
-                    //这个接口中的方法参数就是本次批处理的事件的个数
-                    batchStartAware.onBatchStart(availableSequence - nextSequence + 1);
-                }
-                //下面就是批处理的逻辑了，在一个循环中判断，直到消费者要消费的进度等于刚才返回的最大的进度，就意味着
-                //不能再消费了，因为生产者可能还没有继续发布事件
-                while (nextSequence <= availableSequence) {
-                    // 其实dataProvider就是环形数组
-                    //这里就是根据序号从环形数组中把生产者发布的事件取出来消费
-                    event = dataProvider.get(nextSequence);
-                    //真正消费事件的方法，就是我在测试类中定义的SimpleEventHandler
-                    eventHandler.onEvent(event, nextSequence, nextSequence == availableSequence);
-                    //下一个要消费的进度加1
-                    nextSequence++;
+                try {
+                    final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+                    //本批次最多处理到哪个序号，剩下的留到下一批
+                    final long endOfBatchSequence = Math.min(nextSequence + maxBatchSize - 1, availableSequence);
+                    if (batchStartAware != null) {
+                        //这个接口中的方法参数就是本次批处理的事件的个数
+                        batchStartAware.onBatchStart(endOfBatchSequence - nextSequence + 1);
+                    }
+                    //下一次提前发布消费进度的序号
+                    long releaseSequence = progressReleaseInterval > 0
+                            ? nextSequence + progressReleaseInterval - 1
+                            : Long.MAX_VALUE;
+                    //下面就是批处理的逻辑了，在一个循环中判断，直到消费者要消费的进度等于刚才返回的最大的进度，就意味着
+                    //不能再消费了，因为生产者可能还没有继续发布事件
+                    while (nextSequence <= endOfBatchSequence) {
+                        // 其实dataProvider就是环形数组
+                        //这里就是根据序号从环形数组中把生产者发布的事件取出来消费
+                        event = dataProvider.get(nextSequence);
+                        //真正消费事件的方法，就是我在测试类中定义的SimpleEventHandler
+                        eventHandler.onEvent(event, nextSequence, nextSequence == endOfBatchSequence);
+                        if (nextSequence == releaseSequence && nextSequence != endOfBatchSequence) {
+                            //批次还没结束，先把已经处理完的进度发布出去，让生产者和下游消费者可以继续工作
+                            sequence.set(nextSequence);
+                            sequenceBarrier.signalProducers(sequence);
+                            releaseSequence += progressReleaseInterval;
+                            firstUncommittedSequence = nextSequence + 1;
+                        }
+                        //下一个要消费的进度加1
+                        nextSequence++;
+                    }
+                    //消费完了之后，再把当前消费者的消费进度赋值成最新的
+                    sequence.set(endOfBatchSequence);
+                    //消费进度推进了，环形数组腾出了位置，唤醒可能正在等待的生产者
+                    sequenceBarrier.signalProducers(sequence);
+                    //本批次处理成功，清零重放次数
+                    retriesAttempted = 0;
+                } catch (final RewindableException e) {
+                    if (batchRewindStrategy != null
+                            && batchRewindStrategy.handleRewindException(e, ++retriesAttempted) == RewindAction.REWIND) {
+                        //从第一个未提交的事件开始重新处理，已经提前发布过进度的事件可能已经被生产者覆盖，不能重放
+                        nextSequence = firstUncommittedSequence;
+                    } else {
+                        //放弃重放，交给下面的异常处理逻辑，跳过当前事件
+                        retriesAttempted = 0;
+                        throw e;
+                    }
                 }
-                //消费完了之后，再把当前消费者的消费进度赋值成最新的
-                sequence.set(availableSequence);
             }
             //下面之所以会出现异常，是因为上看调用的sequenceBarrier.waitFor(nextSequence)这行代码
             //因为序号屏障的waitFor方法会抛出异常，就是下面这个方法
@@ -163,6 +243,7 @@ public final class BatchEventProcessor<T>
                 //处理异常之后，会发现把当前要消费进度更新到sequence中了，这也就意味着，一旦出现异常
                 //虽然将要消费的事件还未消费，但是程序内部会默认为已经消费了，总之，会跳过这个事件了
                 sequence.set(nextSequence);
+                sequenceBarrier.signalProducers(sequence);
                 nextSequence++;
             }
         }
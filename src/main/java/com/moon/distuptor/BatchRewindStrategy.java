@@ -0,0 +1,16 @@
+package com.moon.distuptor;
+
+/**
+ * 批次重放策略，决定RewindableEventHandler抛出RewindableException之后是否重新处理本批次
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public interface BatchRewindStrategy {
+
+    /**
+     * @param e        handler抛出的异常
+     * @param attempts 本批次连续失败的次数，从1开始，批次处理成功后清零
+     */
+    RewindAction handleRewindException(RewindableException e, int attempts);
+}
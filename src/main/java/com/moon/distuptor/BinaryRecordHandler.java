@@ -0,0 +1,14 @@
+package com.moon.distuptor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * BinaryRingBuffer的消费者接口
+ * 记录的内容是buffer中[offset, offset + length)这段字节，只在回调期间有效，回调返回后这块内存可能被生产者覆盖
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public interface BinaryRecordHandler {
+    void onRecord(int typeId, ByteBuffer buffer, int offset, int length, long sequence) throws Exception;
+}
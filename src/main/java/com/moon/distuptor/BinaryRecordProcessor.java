@@ -0,0 +1,131 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * BinaryRingBuffer的事件处理器，每次等到新的槽位发布后，批量读取其中所有完整的记录
+ * 消费进度是已经读完的最后一个槽位的序号
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class BinaryRecordProcessor implements EventProcessor {
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final BinaryRingBuffer ringBuffer;
+
+    private final SequenceBarrier sequenceBarrier;
+
+    private final BinaryRecordHandler handler;
+
+    private ExceptionHandler<Object> exceptionHandler = new FatalExceptionHandler();
+
+    //正在处理的记录头的序号，handler抛出异常时用来跳过这条记录
+    private long currentSequence;
+
+    private final BinaryRecordHandler trackingHandler;
+
+    BinaryRecordProcessor(
+            final BinaryRingBuffer ringBuffer,
+            final SequenceBarrier sequenceBarrier,
+            final BinaryRecordHandler handler) {
+        this.ringBuffer = ringBuffer;
+        this.sequenceBarrier = sequenceBarrier;
+        this.handler = handler;
+        this.trackingHandler = (typeId, buffer, offset, length, recordSequence) -> {
+            currentSequence = recordSequence;
+            handler.onRecord(typeId, buffer, offset, length, recordSequence);
+        };
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void halt() {
+        running.set(false);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    //异常处理器拿到的事件是null，序号是出错的记录头所在的序号
+    public void setExceptionHandler(final ExceptionHandler<Object> exceptionHandler) {
+        if (null == exceptionHandler) {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    @Override
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Thread is already running");
+        }
+        sequenceBarrier.clearAlert();
+
+        notifyStart();
+
+        long nextSequence = sequence.get() + 1L;
+        //要等待发布的序号，最后一条记录只发布了一部分时，要等到它的最后一个槽位
+        long requiredSequence = nextSequence;
+        while (true) {
+            try {
+                final long availableSequence = sequenceBarrier.waitFor(requiredSequence);
+                nextSequence = ringBuffer.read(nextSequence, availableSequence, trackingHandler);
+                if (nextSequence - 1 > sequence.get()) {
+                    sequence.set(nextSequence - 1);
+                    sequenceBarrier.signalProducers(sequence);
+                }
+                requiredSequence = nextSequence <= availableSequence ? ringBuffer.recordEnd(nextSequence) : nextSequence;
+            } catch (final TimeoutException e) {
+                // 没有超时回调，继续等待
+            } catch (final AlertException ex) {
+                if (!running.get()) {
+                    break;
+                }
+            } catch (final Throwable ex) {
+                //和BatchEventProcessor一样，交给异常处理器之后跳过出错的记录
+                //出错之前已经处理过的记录不会再处理一遍
+                exceptionHandler.handleEventException(ex, currentSequence, null);
+                nextSequence = ringBuffer.recordEnd(currentSequence) + 1;
+                requiredSequence = nextSequence;
+                sequence.set(nextSequence - 1);
+                sequenceBarrier.signalProducers(sequence);
+            }
+        }
+
+        notifyShutdown();
+
+        running.set(false);
+    }
+
+    private void notifyStart() {
+        if (handler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) handler).onStart();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnStartException(ex);
+            }
+        }
+    }
+
+    private void notifyShutdown() {
+        if (handler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) handler).onShutdown();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnShutdownException(ex);
+            }
+        }
+    }
+}
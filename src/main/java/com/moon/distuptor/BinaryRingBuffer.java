@@ -0,0 +1,194 @@
+package com.moon.distuptor;
+
+import com.moon.distuptor.dsl.ProducerType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * 存放变长二进制记录的环形数组，所有记录首尾相连地存放在一块连续的堆外内存中，内存占用和实际的消息大小一致
+ * 内存被划分成8字节的槽位，Sequencer中的一个序号对应一个槽位，一条记录占用连续的若干个槽位：
+ * 第一个槽位是记录头，前4个字节是记录长度，后4个字节是记录类型，后面的槽位存放记录内容
+ * 生产者一次申请一条记录需要的所有槽位，如果这段槽位跨过了数组末尾，就把它整个标记成填充记录，然后重新申请，
+ * 所以一条真正的记录在内存中总是连续的，消费者遇到填充记录直接跳过
+ * 消费者的进度、等待和生产者的容量检查全部沿用Sequence、SequenceBarrier和WaitStrategy，
+ * 消费者可以通过newEventProcessor创建处理器，也可以自己调用read批量读取
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class BinaryRingBuffer extends AbstractSequencedRing {
+
+    /**
+     * 每个槽位的字节数，也是记录的对齐单位
+     */
+    public static final int SLOT_BYTES = 8;
+
+    /**
+     * 填充记录的类型，用户的记录类型不能使用这个值
+     */
+    public static final int PADDING_TYPE_ID = -1;
+
+    private static final int LENGTH_OFFSET = 0;
+
+    private static final int TYPE_OFFSET = 4;
+
+    /**
+     * 向已经申请到的记录中写入内容，offset是记录内容在buffer中的起始位置
+     */
+    public interface RecordWriter {
+        void write(ByteBuffer buffer, int offset, int length);
+    }
+
+    private final ByteBuffer buffer;
+
+    private final int indexMask;
+
+    private final int maxRecordLength;
+
+    BinaryRingBuffer(final Sequencer sequencer) {
+        super(sequencer);
+        if ((long) bufferSize * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("bufferSize is too large: " + bufferSize);
+        }
+        this.indexMask = bufferSize - 1;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        // 最长的记录不超过半个环形数组，这样遇到填充时最多浪费半圈
+        this.maxRecordLength = (bufferSize / 2 - 1) * SLOT_BYTES;
+        if (maxRecordLength < SLOT_BYTES) {
+            throw new IllegalArgumentException("bufferSize must be at least 4 slots");
+        }
+    }
+
+    /**
+     * @param bufferSize 槽位个数，环形数组的字节数是bufferSize * SLOT_BYTES
+     */
+    public static BinaryRingBuffer createSingleProducer(final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(ProducerType.SINGLE, bufferSize, waitStrategy);
+    }
+
+    public static BinaryRingBuffer createMultiProducer(final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(ProducerType.MULTI, bufferSize, waitStrategy);
+    }
+
+    public static BinaryRingBuffer create(final ProducerType producerType, final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(producerType, bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public static BinaryRingBuffer create(
+            final ProducerType producerType, final int bufferSize,
+            final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy) {
+        return new BinaryRingBuffer(newSequencer(producerType, bufferSize, waitStrategy, producerWaitStrategy));
+    }
+
+    public int getMaxRecordLength() {
+        return maxRecordLength;
+    }
+
+    /**
+     * 写入一条记录，src中[offset, offset + length)的内容会被复制到环形数组中
+     *
+     * @return 记录头所在的序号
+     */
+    public long write(final int typeId, final byte[] src, final int offset, final int length) {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        return write(typeId, length, (dst, dstOffset, len) -> dst.put(dstOffset, src, offset, len));
+    }
+
+    /**
+     * 申请一条长度为length的记录，由writer直接把内容写进环形数组，避免中间的复制
+     *
+     * @return 记录头所在的序号
+     */
+    public long write(final int typeId, final int length, final RecordWriter writer) {
+        if (typeId == PADDING_TYPE_ID) {
+            throw new IllegalArgumentException("typeId " + PADDING_TYPE_ID + " is reserved for padding");
+        }
+        if (length < 0 || length > maxRecordLength) {
+            throw new IllegalArgumentException("length must be in [0, " + maxRecordLength + "]: " + length);
+        }
+
+        final int slots = slotsFor(length);
+        long hi;
+        long lo;
+        while (true) {
+            hi = sequencer.next(slots);
+            lo = hi - (slots - 1);
+            if (indexOf(lo) + slots <= bufferSize) {
+                break;
+            }
+            // 这段槽位跨过了数组末尾，整个标记成填充记录后重新申请
+            putHeader(lo, (slots - 1) * SLOT_BYTES, PADDING_TYPE_ID);
+            sequencer.publish(lo, hi);
+        }
+
+        try {
+            writer.write(buffer, offsetOf(lo) + SLOT_BYTES, length);
+        } catch (final Throwable e) {
+            // 内容没有写完整，整段槽位标记成填充记录再发布，消费者会直接跳过，之后才把异常抛给调用者
+            putHeader(lo, (slots - 1) * SLOT_BYTES, PADDING_TYPE_ID);
+            sequencer.publish(lo, hi);
+            throw e;
+        }
+        putHeader(lo, length, typeId);
+        sequencer.publish(lo, hi);
+        return lo;
+    }
+
+    /**
+     * 批量读取[nextSequence, availableSequence]中所有完整的记录，跳过填充记录
+     * 多生产者时，最后一条记录可能只发布了一部分，这样的记录留到下一次读取
+     *
+     * @return 下一条还没有读取的记录头的序号
+     */
+    public long read(final long nextSequence, final long availableSequence, final BinaryRecordHandler handler) throws Exception {
+        long sequence = nextSequence;
+        while (sequence <= availableSequence) {
+            final int headerOffset = offsetOf(sequence);
+            final int length = buffer.getInt(headerOffset + LENGTH_OFFSET);
+            final long end = sequence + slotsFor(length) - 1;
+            if (end > availableSequence) {
+                break;
+            }
+            final int typeId = buffer.getInt(headerOffset + TYPE_OFFSET);
+            if (typeId != PADDING_TYPE_ID) {
+                handler.onRecord(typeId, buffer, headerOffset + SLOT_BYTES, length, sequence);
+            }
+            sequence = end + 1;
+        }
+        return sequence;
+    }
+
+    /**
+     * 记录头所在的序号已经发布时，返回这条记录最后一个槽位的序号
+     */
+    public long recordEnd(final long headerSequence) {
+        return headerSequence + slotsFor(buffer.getInt(offsetOf(headerSequence) + LENGTH_OFFSET)) - 1;
+    }
+
+    /**
+     * 为handler创建一个事件处理器，和普通的消费者一样，要把它的进度通过addGatingSequences添加到环形数组中，再交给线程执行
+     */
+    public BinaryRecordProcessor newEventProcessor(final SequenceBarrier barrier, final BinaryRecordHandler handler) {
+        return new BinaryRecordProcessor(this, barrier, handler);
+    }
+
+    private void putHeader(final long sequence, final int length, final int typeId) {
+        final int offset = offsetOf(sequence);
+        buffer.putInt(offset + LENGTH_OFFSET, length);
+        buffer.putInt(offset + TYPE_OFFSET, typeId);
+    }
+
+    private static int slotsFor(final int length) {
+        return 1 + (length + SLOT_BYTES - 1) / SLOT_BYTES;
+    }
+
+    private int indexOf(final long sequence) {
+        return (int) sequence & indexMask;
+    }
+
+    private int offsetOf(final long sequence) {
+        return indexOf(sequence) * SLOT_BYTES;
+    }
+}
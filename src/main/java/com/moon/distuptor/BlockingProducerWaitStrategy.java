@@ -0,0 +1,80 @@
+package com.moon.distuptor;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 阻塞的生产者等待策略，环形数组满了生产者就挂起，直到消费者推进进度后把它唤醒
+ * 只有在确实有生产者挂起时，消费者才会去加锁唤醒
+ * 不是所有的gating序号都会在推进之后调用signalProducers，比如外部的Sequence或者备节点的确认进度，
+ * 所以挂起都带有超时，超时之后重新检查一次，挂起时间逐步翻倍，最长不超过MAX_PARK_NANOS
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class BlockingProducerWaitStrategy implements ProducerWaitStrategy {
+
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition capacityAvailable = lock.newCondition();
+
+    /**
+     * 正在挂起的生产者个数，只在持有锁时修改
+     */
+    private volatile int waiters = 0;
+
+    @Override
+    public long waitFor(long wrapPoint, Sequencer sequencer) {
+        long minSequence;
+        if (wrapPoint <= (minSequence = sequencer.getMinimumSequence(wrapPoint))) {
+            return minSequence;
+        }
+
+        boolean interrupted = false;
+        long parkNanos = MIN_PARK_NANOS;
+        lock.lock();
+        try {
+            // 先登记再检查，和消费者那边先更新进度再检查登记形成配对，保证不会丢失唤醒
+            waiters++;
+            // 消费者进度是用acquire方式读取的，这里显式加一个全屏障，保证登记不会被重排到读取之后
+            VarHandle.fullFence();
+            while (wrapPoint > (minSequence = sequencer.getMinimumSequence(wrapPoint))) {
+                try {
+                    capacityAvailable.awaitNanos(parkNanos);
+                } catch (final InterruptedException e) {
+                    // 和之前一样不响应中断，只是把中断状态保留下来
+                    interrupted = true;
+                }
+                parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+            }
+        } finally {
+            waiters--;
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return minSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        // 消费者更新进度用的是有序写，这里加一个全屏障，保证进度对生产者可见之后再读取waiters
+        VarHandle.fullFence();
+        if (waiters != 0) {
+            lock.lock();
+            try {
+                capacityAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 阻塞的等待策略，生产者还没有发布消费者要的数据时，消费者线程就挂起，生产者发布数据后再把它唤醒
+ * 不会空转占用CPU，但是生产者每次发布都要加锁唤醒
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class BlockingWaitStrategy implements WaitStrategy {
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition processorNotifyCondition = lock.newCondition();
+
+    @Override
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        long availableSequence;
+        // 先等待生产者发布数据，这一段会挂起
+        if (cursorSequence.getAcquire() < sequence) {
+            lock.lock();
+            try {
+                while (cursorSequence.getAcquire() < sequence) {
+                    barrier.checkAlert();
+                    processorNotifyCondition.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // 生产者已经发布了，再等待上游的消费者，上游一般很快就能处理完，所以这里只是空转
+        while ((availableSequence = dependentSequence.getAcquire()) < sequence) {
+            barrier.checkAlert();
+            Thread.onSpinWait();
+        }
+
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        lock.lock();
+        try {
+            processorNotifyCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BlockingWaitStrategy{" +
+                "processorNotifyCondition=" + processorNotifyCondition +
+                '}';
+    }
+}
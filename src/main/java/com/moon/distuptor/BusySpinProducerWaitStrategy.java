@@ -0,0 +1,24 @@
+package com.moon.distuptor;
+
+/**
+ * 生产者一直空转等待，延迟最低，但是会一直占着CPU，适合生产者独占一个核的场景
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class BusySpinProducerWaitStrategy implements ProducerWaitStrategy {
+
+    @Override
+    public long waitFor(long wrapPoint, Sequencer sequencer) {
+        long minSequence;
+        while (wrapPoint > (minSequence = sequencer.getMinimumSequence(wrapPoint))) {
+            Thread.onSpinWait();
+        }
+        return minSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+
+    }
+}
@@ -0,0 +1,30 @@
+package com.moon.distuptor;
+
+/**
+ * 消费者一直空转等待，延迟最低，但是会一直占着一个CPU核
+ * 适合消费者线程绑定在独占核上的场景
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long waitFor(final long sequence, Sequence cursor, final Sequence dependentSequence, final SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        long availableSequence;
+
+        while ((availableSequence = dependentSequence.getAcquire()) < sequence) {
+            barrier.checkAlert();
+            // 提示CPU当前在空转，在支持的处理器上可以降低功耗，也能让超线程的另一个线程多拿到资源
+            Thread.onSpinWait();
+        }
+
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+
+    }
+}
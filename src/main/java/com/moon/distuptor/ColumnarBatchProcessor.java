@@ -0,0 +1,148 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ColumnarRingBuffer的事件处理器，每次等到新的序号发布后，把整段区间一次交给BatchHandler
+ * 不会逐个序号回调，也没有批处理过程中提前发布进度的功能：handler在onBatch返回之前都可能还在读这一段的数据，
+ * 所以消费进度只在整批处理完之后才发布
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class ColumnarBatchProcessor implements EventProcessor {
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final SequenceBarrier sequenceBarrier;
+
+    private final ColumnarRingBuffer.BatchHandler handler;
+
+    private final BatchStartAware batchStartAware;
+
+    private final TimeoutHandler timeoutHandler;
+
+    private ExceptionHandler<Object> exceptionHandler = new FatalExceptionHandler();
+
+    private int maxBatchSize = Integer.MAX_VALUE;
+
+    ColumnarBatchProcessor(final SequenceBarrier sequenceBarrier, final ColumnarRingBuffer.BatchHandler handler) {
+        this.sequenceBarrier = sequenceBarrier;
+        this.handler = handler;
+        this.batchStartAware = handler instanceof BatchStartAware ? (BatchStartAware) handler : null;
+        this.timeoutHandler = handler instanceof TimeoutHandler ? (TimeoutHandler) handler : null;
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void halt() {
+        running.set(false);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    //异常处理器拿到的事件是null，序号是出错的这一批的最后一个序号
+    public void setExceptionHandler(final ExceptionHandler<Object> exceptionHandler) {
+        if (null == exceptionHandler) {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    //设置一批最多处理的序号个数，必须在处理器启动之前调用
+    public void setMaxBatchSize(final int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be > 0");
+        }
+
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Thread is already running");
+        }
+        sequenceBarrier.clearAlert();
+
+        notifyStart();
+
+        final int maxBatchSize = this.maxBatchSize;
+        long nextSequence = sequence.get() + 1L;
+        //本批的最后一个序号，出错时跳到它之后
+        long lastSequence;
+        while (true) {
+            lastSequence = nextSequence;
+            try {
+                final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+                if (nextSequence <= availableSequence) {
+                    lastSequence = Math.min(nextSequence + maxBatchSize - 1, availableSequence);
+                    if (batchStartAware != null) {
+                        batchStartAware.onBatchStart(lastSequence - nextSequence + 1);
+                    }
+                    handler.onBatch(nextSequence, lastSequence);
+                    sequence.set(lastSequence);
+                    sequenceBarrier.signalProducers(sequence);
+                    nextSequence = lastSequence + 1;
+                }
+            } catch (final TimeoutException e) {
+                notifyTimeout(sequence.get());
+            } catch (final AlertException ex) {
+                if (!running.get()) {
+                    break;
+                }
+            } catch (final Throwable ex) {
+                //和BatchEventProcessor一样，交给异常处理器之后跳过出错的这一批
+                exceptionHandler.handleEventException(ex, lastSequence, null);
+                sequence.set(lastSequence);
+                sequenceBarrier.signalProducers(sequence);
+                nextSequence = lastSequence + 1;
+            }
+        }
+
+        notifyShutdown();
+
+        running.set(false);
+    }
+
+    private void notifyTimeout(final long availableSequence) {
+        try {
+            if (timeoutHandler != null) {
+                timeoutHandler.onTimeout(availableSequence);
+            }
+        } catch (Throwable e) {
+            exceptionHandler.handleEventException(e, availableSequence, null);
+        }
+    }
+
+    private void notifyStart() {
+        if (handler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) handler).onStart();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnStartException(ex);
+            }
+        }
+    }
+
+    private void notifyShutdown() {
+        if (handler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) handler).onShutdown();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnShutdownException(ex);
+            }
+        }
+    }
+}
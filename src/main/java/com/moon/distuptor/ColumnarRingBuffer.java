@@ -0,0 +1,234 @@
+package com.moon.distuptor;
+
+import com.moon.distuptor.dsl.ProducerType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 列式存储的环形数组，也就是struct-of-arrays布局
+ * 表结构中的每一列都单独存放在一个基本类型数组中，下标是sequence & indexMask
+ * 只读取少数几列的消费者只会把这几列的数据加载到缓存中，而且同一列的数据是连续的，循环处理时容易被JIT向量化
+ * 生产者先用next申请序号，再通过各列的set写入数据，最后publish；消费者通过newBatchProcessor按批次消费
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class ColumnarRingBuffer extends AbstractSequencedRing {
+
+    /**
+     * 消费者接口，每次拿到一批连续的序号，自己决定读取哪些列
+     */
+    public interface BatchHandler {
+        void onBatch(long firstSequence, long lastSequence) throws Exception;
+    }
+
+    /**
+     * 数组中一段连续的下标[fromIndex, toIndex)，用来在原始数组上写向量化友好的循环
+     */
+    public interface RunConsumer {
+        void accept(int fromIndex, int toIndex);
+    }
+
+    public final class LongColumn {
+        private final long[] values = new long[bufferSize];
+
+        public long get(final long sequence) {
+            return values[(int) sequence & indexMask];
+        }
+
+        public void set(final long sequence, final long value) {
+            values[(int) sequence & indexMask] = value;
+        }
+
+        //原始数组，配合indexOf或者forEachRun使用
+        public long[] array() {
+            return values;
+        }
+    }
+
+    public final class IntColumn {
+        private final int[] values = new int[bufferSize];
+
+        public int get(final long sequence) {
+            return values[(int) sequence & indexMask];
+        }
+
+        public void set(final long sequence, final int value) {
+            values[(int) sequence & indexMask] = value;
+        }
+
+        public int[] array() {
+            return values;
+        }
+    }
+
+    public final class DoubleColumn {
+        private final double[] values = new double[bufferSize];
+
+        public double get(final long sequence) {
+            return values[(int) sequence & indexMask];
+        }
+
+        public void set(final long sequence, final double value) {
+            values[(int) sequence & indexMask] = value;
+        }
+
+        public double[] array() {
+            return values;
+        }
+    }
+
+    /**
+     * 定长的字节列，第i个槽位占用[i * width, (i + 1) * width)
+     */
+    public final class BytesColumn {
+        private final int width;
+
+        private final byte[] values;
+
+        BytesColumn(final int width) {
+            if ((long) width * bufferSize > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("width * bufferSize is too large: " + width);
+            }
+            this.width = width;
+            this.values = new byte[width * bufferSize];
+        }
+
+        public int width() {
+            return width;
+        }
+
+        //把槽位的数据复制到dst中，复制width个字节
+        public void get(final long sequence, final byte[] dst, final int dstOffset) {
+            System.arraycopy(values, offsetOf(sequence), dst, dstOffset, width);
+        }
+
+        //写入槽位，length不能超过width
+        public void set(final long sequence, final byte[] src, final int srcOffset, final int length) {
+            if (length > width) {
+                throw new IllegalArgumentException("length must not be greater than width: " + length);
+            }
+            System.arraycopy(src, srcOffset, values, offsetOf(sequence), length);
+        }
+
+        //槽位在原始数组中的起始位置
+        public int offsetOf(final long sequence) {
+            return ((int) sequence & indexMask) * width;
+        }
+
+        public byte[] array() {
+            return values;
+        }
+    }
+
+    private final int indexMask;
+
+    private final Map<String, Object> columns = new HashMap<>();
+
+    ColumnarRingBuffer(final ColumnarSchema schema, final Sequencer sequencer) {
+        super(sequencer);
+        this.indexMask = bufferSize - 1;
+
+        for (ColumnarSchema.Column column : schema.getColumns()) {
+            final Object storage;
+            switch (column.getType()) {
+                case LONG:
+                    storage = new LongColumn();
+                    break;
+                case INT:
+                    storage = new IntColumn();
+                    break;
+                case DOUBLE:
+                    storage = new DoubleColumn();
+                    break;
+                case BYTES:
+                    storage = new BytesColumn(column.getWidth());
+                    break;
+                default:
+                    throw new IllegalStateException(column.getType().toString());
+            }
+            columns.put(column.getName(), storage);
+        }
+    }
+
+    public static ColumnarRingBuffer createSingleProducer(final ColumnarSchema schema, final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(ProducerType.SINGLE, schema, bufferSize, waitStrategy);
+    }
+
+    public static ColumnarRingBuffer createMultiProducer(final ColumnarSchema schema, final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(ProducerType.MULTI, schema, bufferSize, waitStrategy);
+    }
+
+    public static ColumnarRingBuffer create(
+            final ProducerType producerType, final ColumnarSchema schema, final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(producerType, schema, bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public static ColumnarRingBuffer create(
+            final ProducerType producerType, final ColumnarSchema schema, final int bufferSize,
+            final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy) {
+        return new ColumnarRingBuffer(schema, newSequencer(producerType, bufferSize, waitStrategy, producerWaitStrategy));
+    }
+
+    public LongColumn longColumn(final String name) {
+        return column(name, LongColumn.class);
+    }
+
+    public IntColumn intColumn(final String name) {
+        return column(name, IntColumn.class);
+    }
+
+    public DoubleColumn doubleColumn(final String name) {
+        return column(name, DoubleColumn.class);
+    }
+
+    public BytesColumn bytesColumn(final String name) {
+        return column(name, BytesColumn.class);
+    }
+
+    //序号在每一列原始数组中的下标
+    public int indexOf(final long sequence) {
+        return (int) sequence & indexMask;
+    }
+
+    /**
+     * 把[firstSequence, lastSequence]这段序号拆成原始数组上的连续下标区间，环形数组绕回时拆成两段
+     */
+    public void forEachRun(final long firstSequence, final long lastSequence, final RunConsumer consumer) {
+        final long count = lastSequence - firstSequence + 1;
+        if (count <= 0) {
+            return;
+        }
+        if (count > bufferSize) {
+            throw new IllegalArgumentException("range is larger than bufferSize: " + count);
+        }
+        final int from = indexOf(firstSequence);
+        final int end = from + (int) count;
+        if (end <= bufferSize) {
+            consumer.accept(from, end);
+        } else {
+            consumer.accept(from, bufferSize);
+            consumer.accept(0, end - bufferSize);
+        }
+    }
+
+    /**
+     * 为handler创建一个事件处理器，每批事件只回调一次handler，整批处理完之后才发布消费进度
+     * 和普通的消费者一样，要把它的进度通过addGatingSequences添加到环形数组中，再交给线程执行
+     */
+    public ColumnarBatchProcessor newBatchProcessor(final SequenceBarrier barrier, final BatchHandler handler) {
+        return new ColumnarBatchProcessor(barrier, handler);
+    }
+
+    private <C> C column(final String name, final Class<C> type) {
+        final Object column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("No such column: " + name);
+        }
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException("Column " + name + " is not a " + type.getSimpleName());
+        }
+        return type.cast(column);
+    }
+}
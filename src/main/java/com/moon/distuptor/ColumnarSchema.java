@@ -0,0 +1,87 @@
+package com.moon.distuptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 列式环形数组的表结构，按顺序声明每一列的名字和类型
+ * byte[]类型的列是定长的，需要声明宽度，写入的数据不足宽度时剩余部分保持原样
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class ColumnarSchema {
+
+    public enum ColumnType {
+        LONG,
+        INT,
+        DOUBLE,
+        BYTES
+    }
+
+    /**
+     * 一列的定义
+     */
+    public static final class Column {
+        private final String name;
+
+        private final ColumnType type;
+
+        //BYTES类型每个槽位的字节数，其他类型为0
+        private final int width;
+
+        Column(final String name, final ColumnType type, final int width) {
+            this.name = name;
+            this.type = type;
+            this.width = width;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ColumnType getType() {
+            return type;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+    }
+
+    private final List<Column> columns = new ArrayList<>();
+
+    public ColumnarSchema addLong(final String name) {
+        return add(name, ColumnType.LONG, 0);
+    }
+
+    public ColumnarSchema addInt(final String name) {
+        return add(name, ColumnType.INT, 0);
+    }
+
+    public ColumnarSchema addDouble(final String name) {
+        return add(name, ColumnType.DOUBLE, 0);
+    }
+
+    public ColumnarSchema addBytes(final String name, final int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("width must be > 0");
+        }
+        return add(name, ColumnType.BYTES, width);
+    }
+
+    public List<Column> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    private ColumnarSchema add(final String name, final ColumnType type, final int width) {
+        for (Column column : columns) {
+            if (column.name.equals(name)) {
+                throw new IllegalArgumentException("Duplicate column: " + name);
+            }
+        }
+        columns.add(new Column(name, type, width));
+        return this;
+    }
+}
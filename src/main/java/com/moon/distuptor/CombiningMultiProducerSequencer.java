@@ -0,0 +1,229 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于flat-combining的多生产者序号生成器
+ * 生产者不再各自CAS竞争cursor，而是把申请登记到发布列表中，由抢到组合锁的那个生产者（combiner）
+ * 一次性扫描所有登记的申请，分配一段连续的序号，最后只更新一次cursor
+ * 发布和可用标志的逻辑与MultiProducerSequencer完全一样
+ * 和flat-combining论文一样，combiner会定期把很久没有申请过序号的节点从发布列表中摘掉，
+ * 否则线程池不断更换线程或者使用虚拟线程时，发布列表会无限变长，死掉的线程的节点也无法回收
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class CombiningMultiProducerSequencer extends MultiProducerSequencer {
+
+    /**
+     * 发布列表中的节点，每个生产者线程一个
+     */
+    static final class Request {
+        protected long p1, p2, p3, p4, p5, p6, p7;
+
+        /**
+         * 申请的序号个数，大于0表示还在等待分配，combiner分配完成后会把它置为0
+         */
+        volatile int pending;
+
+        /**
+         * combiner分配给该节点的最大序号
+         */
+        long granted;
+
+        /**
+         * 是否被本轮combiner选中，只会被持有组合锁的线程访问
+         */
+        boolean selected;
+
+        protected long p9, p10, p11, p12, p13, p14, p15;
+
+        /**
+         * 最近一次有申请时combiner的轮次，只会被持有组合锁的线程访问
+         */
+        long lastActivePass;
+
+        /**
+         * 是否在发布列表中，被摘掉之后由所属线程在下一次申请时重新加入
+         */
+        volatile boolean linked;
+
+        /**
+         * 发布列表中的下一个节点，只有加入列表时和持有组合锁的combiner摘除节点时才会修改
+         */
+        Request next;
+    }
+
+    /**
+     * 每隔多少轮组合清理一次发布列表
+     */
+    private static final int CLEANUP_INTERVAL = 64;
+
+    /**
+     * 连续多少轮没有申请的节点会被摘掉
+     */
+    private static final int MAX_IDLE_PASSES = 256;
+
+    /**
+     * 等待combiner分配序号时每次挂起的时间
+     */
+    private static final long WAIT_PARK_NANOS = 1_000L;
+
+    /**
+     * 发布列表的头节点，新线程第一次申请时把自己的节点插到头部
+     */
+    private final AtomicReference<Request> publicationList = new AtomicReference<>();
+
+    /**
+     * 组合锁，抢到的生产者负责替所有人分配序号
+     */
+    private final AtomicBoolean combining = new AtomicBoolean(false);
+
+    private final ThreadLocal<Request> localRequest = ThreadLocal.withInitial(this::register);
+
+    /**
+     * combiner自己缓存的最慢消费者进度，只会被持有组合锁的线程访问
+     */
+    private long cachedGatingSequence = Sequencer.INITIAL_CURSOR_VALUE;
+
+    /**
+     * 组合的轮次，只会被持有组合锁的线程访问
+     */
+    private long combiningPass;
+
+    public CombiningMultiProducerSequencer(int bufferSize, final WaitStrategy waitStrategy) {
+        this(bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public CombiningMultiProducerSequencer(int bufferSize, final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy) {
+        super(bufferSize, waitStrategy, producerWaitStrategy);
+    }
+
+    @Override
+    public long next(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+
+        final Request request = localRequest.get();
+        request.pending = n;
+        if (!request.linked) {
+            // 节点因为长时间空闲被摘掉了，重新加入发布列表，即使这次没赶上，自己抢到组合锁时也会处理自己的申请
+            link(request);
+        }
+
+        int spins = 0;
+        while (request.pending != 0) {
+            if (!combining.get() && combining.compareAndSet(false, true)) {
+                try {
+                    // 抢锁之前上一个combiner可能已经替自己分配好了，这时再组合会覆盖granted，已经分配的序号就永远不会发布了
+                    if (request.pending != 0) {
+                        combine(request);
+                    }
+                } finally {
+                    combining.set(false);
+                }
+            } else if (++spins < 100) {
+                Thread.onSpinWait();
+            } else if (spins < 200) {
+                Thread.yield();
+            } else {
+                // 虚拟线程反复yield可能一直占着载体线程，让挂起等待容量的combiner没有机会恢复运行，所以最后改成短暂挂起
+                LockSupport.parkNanos(WAIT_PARK_NANOS);
+            }
+        }
+
+        return request.granted;
+    }
+
+    /**
+     * 持有组合锁的线程执行，先处理自己的申请保证一定有进展，再尽量多地捎带其他生产者的申请
+     */
+    private void combine(final Request self) {
+        final long pass = ++combiningPass;
+        final long current = cursor.get();
+        long next = current + self.pending;
+        self.lastActivePass = pass;
+
+        final Request head = publicationList.get();
+        for (Request r = head; r != null; r = r.next) {
+            final int pending = r.pending;
+            if (pending != 0) {
+                r.lastActivePass = pass;
+            }
+            // 一次分配的总量不能超过环形数组容量，剩下的留给下一轮
+            if (r != self && pending != 0 && next + pending - current <= bufferSize) {
+                r.selected = true;
+                next += pending;
+            }
+        }
+
+        final long wrapPoint = next - bufferSize;
+        if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current) {
+            long gatingSequence = minimumGatingSequence(wrapPoint, current);
+            if (wrapPoint > gatingSequence) {
+                gatingSequence = producerWaitStrategy.waitFor(wrapPoint, this);
+            }
+            cachedGatingSequence = gatingSequence;
+        }
+
+        // tryNext仍然是直接CAS cursor的，所以这里也要用CAS，失败了就放弃这一轮重新组合
+        final boolean claimed = cursor.compareAndSet(current, next);
+
+        // 把[current + 1, next]依次切分给每一个被选中的节点，选中的节点只有combiner能清除，所以申请个数不会变
+        long sequence = current + self.pending;
+        if (claimed) {
+            self.granted = sequence;
+            self.pending = 0;
+        }
+
+        for (Request r = head; r != null; r = r.next) {
+            if (r.selected) {
+                r.selected = false;
+                if (claimed) {
+                    sequence += r.pending;
+                    r.granted = sequence;
+                    r.pending = 0;
+                }
+            }
+        }
+
+        if (pass % CLEANUP_INTERVAL == 0) {
+            removeIdle(head, pass);
+        }
+    }
+
+    /**
+     * 摘掉长时间没有申请的节点，头节点可能正在被新节点CAS，所以不动它，其余节点只有combiner会修改next
+     * 先摘除再清除linked标志，所属线程看到标志被清除之后才会修改节点的next重新加入，不会破坏正在摘除的链表
+     */
+    private void removeIdle(final Request head, final long pass) {
+        Request prev = head;
+        for (Request r = head.next; r != null; r = prev.next) {
+            if (r.pending == 0 && pass - r.lastActivePass > MAX_IDLE_PASSES) {
+                prev.next = r.next;
+                r.linked = false;
+            } else {
+                prev = r;
+            }
+        }
+    }
+
+    private Request register() {
+        final Request request = new Request();
+        link(request);
+        return request;
+    }
+
+    private void link(final Request request) {
+        request.linked = true;
+        Request head;
+        do {
+            head = publicationList.get();
+            request.next = head;
+        }
+        while (!publicationList.compareAndSet(head, request));
+    }
+}
@@ -0,0 +1,126 @@
+package com.moon.distuptor;
+
+/**
+ * 拉模式的消费者，不需要单独的线程，由使用者在自己的循环中（比如游戏主循环、NIO的selector线程）反复调用poll
+ * 每次poll把当前能消费的事件交给handler处理，处理完后更新自己的消费进度
+ * 和BatchEventProcessor一样，getSequence()返回的进度需要通过addGatingSequences添加到环形数组中，否则生产者会覆盖尚未消费的数据
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public class EventPoller<T> {
+
+    private final DataProvider<T> dataProvider;
+
+    private final Sequencer sequencer;
+
+    //当前poller的消费进度
+    private final Sequence sequence;
+
+    //poller能消费到的上限，生产者的进度和上游消费者进度中的最小值
+    private final Sequence gatingSequence;
+
+    public interface Handler<T> {
+        /**
+         * @return 返回false表示本次poll不再继续处理后面的事件
+         */
+        boolean onEvent(T event, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    public enum PollState {
+        /**
+         * 本次poll处理了至少一个事件
+         */
+        PROCESSING,
+
+        /**
+         * 生产者已经发布了新事件，但是被上游消费者挡住了，还不能消费
+         */
+        GATING,
+
+        /**
+         * 没有新事件
+         */
+        IDLE
+    }
+
+    public EventPoller(
+            final DataProvider<T> dataProvider,
+            final Sequencer sequencer,
+            final Sequence sequence,
+            final Sequence gatingSequence) {
+        this.dataProvider = dataProvider;
+        this.sequencer = sequencer;
+        this.sequence = sequence;
+        this.gatingSequence = gatingSequence;
+    }
+
+    /**
+     * 处理当前所有可以消费的事件，一次最多处理一整圈
+     */
+    public PollState poll(final Handler<T> eventHandler) throws Exception {
+        return poll(eventHandler, sequencer.getBufferSize());
+    }
+
+    /**
+     * 处理当前可以消费的事件，一次最多处理limit个，避免长时间占用调用者的线程
+     */
+    public PollState poll(final Handler<T> eventHandler, final int limit) throws Exception {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+
+        final long currentSequence = sequence.get();
+        long nextSequence = currentSequence + 1;
+        final long upperBound = Math.min(gatingSequence.getAcquire(), currentSequence + limit);
+        //多生产者模式下，还要确认这段序号是连续发布的
+        final long availableSequence = sequencer.getHighestPublishedSequence(nextSequence, upperBound);
+
+        if (nextSequence <= availableSequence) {
+            boolean processNextEvent;
+            long processedSequence = currentSequence;
+
+            try {
+                do {
+                    final T event = dataProvider.get(nextSequence);
+                    processNextEvent = eventHandler.onEvent(event, nextSequence, nextSequence == availableSequence);
+                    processedSequence = nextSequence;
+                    nextSequence++;
+                }
+                while (nextSequence <= availableSequence && processNextEvent);
+            } finally {
+                //handler抛出异常时，也要把已经处理完的事件提交掉
+                sequence.set(processedSequence);
+                sequencer.signalProducers(sequence);
+            }
+
+            return PollState.PROCESSING;
+        } else if (sequencer.getCursor() >= nextSequence) {
+            return PollState.GATING;
+        } else {
+            return PollState.IDLE;
+        }
+    }
+
+    public static <T> EventPoller<T> newInstance(
+            final DataProvider<T> dataProvider,
+            final Sequencer sequencer,
+            final Sequence sequence,
+            final Sequence cursorSequence,
+            final Sequence... gatingSequences) {
+        Sequence gatingSequence;
+        if (gatingSequences.length == 0) {
+            gatingSequence = cursorSequence;
+        } else if (gatingSequences.length == 1) {
+            gatingSequence = gatingSequences[0];
+        } else {
+            gatingSequence = new FixedSequenceGroup(gatingSequences);
+        }
+
+        return new EventPoller<>(dataProvider, sequencer, sequence, gatingSequence);
+    }
+
+    public Sequence getSequence() {
+        return sequence;
+    }
+}
@@ -1,5 +1,7 @@
 package com.moon.distuptor;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * 生产者发布数据的方法
  *
@@ -11,4 +13,85 @@ public interface EventSink<E> {
     void publishEvent(EventTranslator<E> translator);
 
     <A> void publishEvent(EventTranslatorOneArg<E, A> translator, A arg0);
+
+    <A, B> void publishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1);
+
+    <A, B, C> void publishEvent(EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2);
+
+    /**
+     * 参数个数不固定的版本单独命名，和publishEvent(EventTranslatorOneArg, A)重载时传入lambda会有歧义
+     */
+    void publishVarargEvent(EventTranslatorVararg<E> translator, Object... args);
+
+    /**
+     * 尝试发布，环形数组满了就立刻返回false，不会阻塞生产者，也不会抛异常
+     */
+    boolean tryPublishEvent(EventTranslator<E> translator);
+
+    <A> boolean tryPublishEvent(EventTranslatorOneArg<E, A> translator, A arg0);
+
+    <A, B> boolean tryPublishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1);
+
+    <A, B, C> boolean tryPublishEvent(EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2);
+
+    boolean tryPublishVarargEvent(EventTranslatorVararg<E> translator, Object... args);
+
+    /**
+     * 在超时时间内等待可用的序号并发布，超时后放弃发布并返回false
+     */
+    boolean publishEvent(EventTranslator<E> translator, long timeout, TimeUnit unit);
+
+    <A> boolean publishEvent(EventTranslatorOneArg<E, A> translator, A arg0, long timeout, TimeUnit unit);
+
+    <A, B> boolean publishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1, long timeout, TimeUnit unit);
+
+    <A, B, C> boolean publishEvent(
+            EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2, long timeout, TimeUnit unit);
+
+    /**
+     * 批量发布，只申请一次序号，也只发布一次
+     */
+    void publishEvents(EventTranslator<E>[] translators);
+
+    void publishEvents(EventTranslator<E>[] translators, int batchStartsAt, int batchSize);
+
+    boolean tryPublishEvents(EventTranslator<E>[] translators);
+
+    boolean tryPublishEvents(EventTranslator<E>[] translators, int batchStartsAt, int batchSize);
+
+    <A> void publishEvents(EventTranslatorOneArg<E, A> translator, A[] arg0);
+
+    <A> void publishEvents(EventTranslatorOneArg<E, A> translator, int batchStartsAt, int batchSize, A[] arg0);
+
+    <A> boolean tryPublishEvents(EventTranslatorOneArg<E, A> translator, A[] arg0);
+
+    <A> boolean tryPublishEvents(EventTranslatorOneArg<E, A> translator, int batchStartsAt, int batchSize, A[] arg0);
+
+    <A, B> void publishEvents(EventTranslatorTwoArg<E, A, B> translator, A[] arg0, B[] arg1);
+
+    <A, B> void publishEvents(
+            EventTranslatorTwoArg<E, A, B> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1);
+
+    <A, B> boolean tryPublishEvents(EventTranslatorTwoArg<E, A, B> translator, A[] arg0, B[] arg1);
+
+    <A, B> boolean tryPublishEvents(
+            EventTranslatorTwoArg<E, A, B> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1);
+
+    <A, B, C> void publishEvents(EventTranslatorThreeArg<E, A, B, C> translator, A[] arg0, B[] arg1, C[] arg2);
+
+    <A, B, C> void publishEvents(
+            EventTranslatorThreeArg<E, A, B, C> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1, C[] arg2);
+
+    <A, B, C> boolean tryPublishEvents(EventTranslatorThreeArg<E, A, B, C> translator, A[] arg0, B[] arg1, C[] arg2);
+
+    <A, B, C> boolean tryPublishEvents(
+            EventTranslatorThreeArg<E, A, B, C> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1, C[] arg2);
+
+    void publishVarargEvents(EventTranslatorVararg<E> translator, Object[]... args);
+
+    void publishVarargEvents(EventTranslatorVararg<E> translator, int batchStartsAt, int batchSize, Object[]... args);
+
+    boolean tryPublishVarargEvents(EventTranslatorVararg<E> translator, Object[]... args);
+
+    boolean tryPublishVarargEvents(EventTranslatorVararg<E> translator, int batchStartsAt, int batchSize, Object[]... args);
 }
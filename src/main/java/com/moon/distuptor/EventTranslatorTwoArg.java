@@ -0,0 +1,20 @@
+package com.moon.distuptor;
+
+/**
+ * 和EventTranslatorOneArg一样，只是设置Event对象中的数据时需要两个参数
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public interface EventTranslatorTwoArg<T, A, B>
+{
+    /**
+     * Translate a data representation into fields set in given event
+     *
+     * @param event    into which the data should be translated.
+     * @param sequence that is assigned to event.
+     * @param arg0     The first user specified argument to the translator
+     * @param arg1     The second user specified argument to the translator
+     */
+    void translateTo(T event, long sequence, A arg0, B arg1);
+}
@@ -0,0 +1,24 @@
+package com.moon.distuptor;
+
+/**
+ * 立即重新处理本批次，连续失败达到最大次数之后放弃，把异常交给异常处理器
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class EventuallyGiveUpBatchRewindStrategy implements BatchRewindStrategy {
+
+    private final int maxAttempts;
+
+    public EventuallyGiveUpBatchRewindStrategy(final int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be > 0");
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public RewindAction handleRewindException(final RewindableException e, final int attempts) {
+        return attempts < maxAttempts ? RewindAction.REWIND : RewindAction.THROW;
+    }
+}
@@ -0,0 +1,91 @@
+package com.moon.distuptor;
+
+import com.moon.distuptor.util.Util;
+
+import java.util.Arrays;
+
+/**
+ * 把一组固定的Sequence当作一个Sequence来用，读取到的值是这组Sequence中最小的那个
+ * 用在消费者依赖多个上游消费者的场景，只有所有上游都消费完的事件，当前消费者才能消费
+ * 这个类只能读取，不能写入
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class FixedSequenceGroup extends Sequence {
+
+    private final Sequence[] sequences;
+
+    public FixedSequenceGroup(final Sequence[] sequences) {
+        this.sequences = Arrays.copyOf(sequences, sequences.length);
+        // 父类的value不再代表某个进度，而是用来缓存上一次算出来的最小值
+        super.setRelease(Util.getMinimumSequence(this.sequences));
+    }
+
+    @Override
+    public long get() {
+        return getAcquire();
+    }
+
+    @Override
+    public long getAcquire() {
+        final long minimum = Util.getMinimumSequence(sequences);
+        // 上游进度只会增加，所以只在变大时更新缓存，并发更新时缓存最多只是偏小，不会偏大
+        if (minimum > super.getAcquire()) {
+            super.setRelease(minimum);
+        }
+        return minimum;
+    }
+
+    @Override
+    public long getOpaque() {
+        return getAcquire();
+    }
+
+    /**
+     * 上一次算出来的最小值，不用重新扫描所有上游，一定不大于当前真实的最小值
+     */
+    public long getCachedMinimum() {
+        return super.getAcquire();
+    }
+
+    @Override
+    public void set(final long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setRelease(final long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setOpaque(final long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setVolatile(final long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean compareAndSet(final long expectedValue, final long newValue) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long incrementAndGet() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long addAndGet(final long increment) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(sequences);
+    }
+}
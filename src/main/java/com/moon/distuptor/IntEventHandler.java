@@ -0,0 +1,11 @@
+package com.moon.distuptor;
+
+/**
+ * IntRingBuffer的消费者接口，直接拿到int类型的值，没有事件对象
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public interface IntEventHandler {
+    void onEvent(int value, long sequence, boolean endOfBatch) throws Exception;
+}
@@ -0,0 +1,77 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 和BlockingWaitStrategy一样会挂起消费者，但是只有在消费者标记了自己需要被唤醒时，生产者才会去加锁唤醒
+ * 消费者跟得上的时候，生产者发布数据几乎没有额外的开销
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class LiteBlockingWaitStrategy implements WaitStrategy {
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition processorNotifyCondition = lock.newCondition();
+
+    /**
+     * 是否有消费者在等待唤醒
+     */
+    private final AtomicBoolean signalNeeded = new AtomicBoolean(false);
+
+    @Override
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        long availableSequence;
+        if (cursorSequence.getAcquire() < sequence) {
+            lock.lock();
+            try {
+                do {
+                    // 先标记需要唤醒，再检查生产者进度，和生产者先更新进度再检查标记形成配对，不会丢失唤醒
+                    signalNeeded.getAndSet(true);
+
+                    if (cursorSequence.getAcquire() >= sequence) {
+                        break;
+                    }
+
+                    barrier.checkAlert();
+                    processorNotifyCondition.await();
+                }
+                while (cursorSequence.getAcquire() < sequence);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        while ((availableSequence = dependentSequence.getAcquire()) < sequence) {
+            barrier.checkAlert();
+            Thread.onSpinWait();
+        }
+
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        if (signalNeeded.getAndSet(false)) {
+            lock.lock();
+            try {
+                processorNotifyCondition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LiteBlockingWaitStrategy{" +
+                "processorNotifyCondition=" + processorNotifyCondition +
+                ", signalNeeded=" + signalNeeded +
+                '}';
+    }
+}
@@ -0,0 +1,11 @@
+package com.moon.distuptor;
+
+/**
+ * LongRingBuffer的消费者接口，直接拿到long类型的值，没有事件对象
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public interface LongEventHandler {
+    void onEvent(long value, long sequence, boolean endOfBatch) throws Exception;
+}
@@ -0,0 +1,103 @@
+package com.moon.distuptor;
+
+import com.moon.distuptor.dsl.ProducerType;
+
+import java.util.Objects;
+
+/**
+ * 只传递一个long值的环形数组，值直接存放在long[]中，不需要EventFactory创建事件对象，也没有装箱
+ * 消费时少了一次从数组到事件对象的指针解引用，占用的内存也比每个槽位一个事件对象小得多
+ * 序号的申请、发布和消费者的等待仍然由Sequencer和SequenceBarrier完成，消费者通过newEventProcessor创建
+ * 注意Sequenced中已经有publish(long sequence)这个按序号发布的方法，所以按值发布的方法叫publishValue
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class LongRingBuffer extends AbstractSequencedRing {
+
+    /**
+     * 数组前后各填充的元素个数，保证有效数据不会和其他对象共享缓存行
+     */
+    private static final int BUFFER_PAD = 128 / Long.BYTES;
+
+    private final long[] entries;
+
+    private final int indexMask;
+
+    LongRingBuffer(final Sequencer sequencer) {
+        super(sequencer);
+        this.indexMask = bufferSize - 1;
+        this.entries = new long[bufferSize + 2 * BUFFER_PAD];
+    }
+
+    public static LongRingBuffer createSingleProducer(final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(ProducerType.SINGLE, bufferSize, waitStrategy);
+    }
+
+    public static LongRingBuffer createMultiProducer(final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(ProducerType.MULTI, bufferSize, waitStrategy);
+    }
+
+    public static LongRingBuffer create(final ProducerType producerType, final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(producerType, bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public static LongRingBuffer create(
+            final ProducerType producerType, final int bufferSize,
+            final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy) {
+        return new LongRingBuffer(newSequencer(producerType, bufferSize, waitStrategy, producerWaitStrategy));
+    }
+
+    //读取序号对应槽位的值，可见性由Sequencer发布时的release写和消费者等待时的acquire读保证
+    public long get(final long sequence) {
+        return entries[BUFFER_PAD + ((int) sequence & indexMask)];
+    }
+
+    //写入已经申请到的序号对应的槽位，写完之后还要调用publish
+    public void set(final long sequence, final long value) {
+        entries[BUFFER_PAD + ((int) sequence & indexMask)] = value;
+    }
+
+    //申请一个序号，写入值并发布
+    public void publishValue(final long value) {
+        final long sequence = sequencer.next();
+        set(sequence, value);
+        sequencer.publish(sequence);
+    }
+
+    //批量发布values[offset, offset + length)，整批数据只申请一次序号，也只发布一次
+    public void publishValues(final long[] values, final int offset, final int length) {
+        if (length < 1 || length > bufferSize) {
+            throw new IllegalArgumentException("length must be in [1, bufferSize]: " + length);
+        }
+        Objects.checkFromIndexSize(offset, length, values.length);
+
+        final long finalSequence = sequencer.next(length);
+        final long initialSequence = finalSequence - (length - 1);
+        for (int i = 0; i < length; i++) {
+            set(initialSequence + i, values[offset + i]);
+        }
+        sequencer.publish(initialSequence, finalSequence);
+    }
+
+    //尝试发布一个值，环形数组满了就返回false
+    public boolean tryPublishValue(final long value) {
+        final long sequence = sequencer.tryNextSequence(1);
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        set(sequence, value);
+        sequencer.publish(sequence);
+        return true;
+    }
+
+    /**
+     * 为handler创建一个事件处理器，和普通的消费者一样，要把它的进度通过addGatingSequences添加到环形数组中，再交给线程执行
+     */
+    public BatchEventProcessor<Void> newEventProcessor(final SequenceBarrier barrier, final LongEventHandler handler) {
+        return new BatchEventProcessor<>(
+                PrimitiveHandlerAdapter.NO_EVENTS,
+                barrier,
+                new PrimitiveHandlerAdapter(handler, (sequence, endOfBatch) -> handler.onEvent(get(sequence), sequence, endOfBatch)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.moon.distuptor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 值存放在一块ByteBuffer（通常是内存映射文件）中的Sequence，映射了同一个文件的多个进程看到的是同一个进度
+ * 读写的内存语义和Sequence完全一样，只是把对象字段换成了ByteBuffer中8字节对齐的位置
+ * 父类中的value字段不再使用
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class MappedSequence extends Sequence {
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+
+    private final int offset;
+
+    /**
+     * @param buffer 必须是直接内存，offset必须8字节对齐，否则无法保证原子性
+     */
+    public MappedSequence(final ByteBuffer buffer, final int offset) {
+        if (!buffer.isDirect() || (offset & 7) != 0) {
+            throw new IllegalArgumentException("MappedSequence requires a direct buffer and an 8-byte aligned offset");
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    @Override
+    public long get() {
+        return (long) LONG_VIEW.getVolatile(buffer, offset);
+    }
+
+    @Override
+    public long getAcquire() {
+        return (long) LONG_VIEW.getAcquire(buffer, offset);
+    }
+
+    @Override
+    public long getOpaque() {
+        return (long) LONG_VIEW.getOpaque(buffer, offset);
+    }
+
+    @Override
+    public void set(final long value) {
+        LONG_VIEW.setRelease(buffer, offset, value);
+    }
+
+    @Override
+    public void setRelease(final long value) {
+        LONG_VIEW.setRelease(buffer, offset, value);
+    }
+
+    @Override
+    public void setOpaque(final long value) {
+        LONG_VIEW.setOpaque(buffer, offset, value);
+    }
+
+    @Override
+    public void setVolatile(final long value) {
+        LONG_VIEW.setVolatile(buffer, offset, value);
+    }
+
+    @Override
+    public boolean compareAndSet(final long expectedValue, final long newValue) {
+        return LONG_VIEW.compareAndSet(buffer, offset, expectedValue, newValue);
+    }
+
+    @Override
+    public long addAndGet(final long increment) {
+        return (long) LONG_VIEW.getAndAdd(buffer, offset, increment) + increment;
+    }
+}
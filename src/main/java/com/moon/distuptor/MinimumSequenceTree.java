@@ -0,0 +1,113 @@
+package com.moon.distuptor;
+
+import java.lang.invoke.VarHandle;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 消费者进度的最小值树，消费者很多时用来代替对gatingSequences的线性扫描
+ * 叶子是每个消费者的进度，每个内部节点保存它所有孩子的最小值，根节点就是所有消费者的最小进度
+ * 消费者推进进度后沿着自己所在的路径向上更新，生产者只需要读一下根节点
+ * 内部节点只会单调递增，并且永远不会大于真实的最小值，所以它只是一个下界，不够用时生产者还要退回到线性扫描
+ * 树一旦创建就不再改变，gatingSequences变化时整棵树重建
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+final class MinimumSequenceTree {
+
+    /**
+     * 每个内部节点的孩子个数，8个long的进度读取起来代价很小
+     */
+    static final int FANOUT = 8;
+
+    private final Sequence[] leaves;
+
+    /**
+     * levels[0]是叶子的父节点，最后一层只有一个根节点
+     */
+    private final Sequence[][] levels;
+
+    private final Sequence root;
+
+    private final Map<Sequence, Integer> leafIndexes;
+
+    MinimumSequenceTree(final Sequence[] leaves) {
+        this.leaves = leaves;
+        this.leafIndexes = new IdentityHashMap<>(leaves.length * 2);
+        for (int i = 0; i < leaves.length; i++) {
+            leafIndexes.put(leaves[i], i);
+        }
+
+        int depth = 0;
+        for (int width = leaves.length; width > 1; width = (width + FANOUT - 1) / FANOUT) {
+            depth++;
+        }
+        this.levels = new Sequence[Math.max(depth, 1)][];
+
+        Sequence[] children = leaves;
+        for (int level = 0; level < levels.length; level++) {
+            final Sequence[] nodes = new Sequence[(children.length + FANOUT - 1) / FANOUT];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = new Sequence(minimumOfChildren(children, i));
+            }
+            levels[level] = nodes;
+            children = nodes;
+        }
+        this.root = levels[levels.length - 1][0];
+    }
+
+    /**
+     * 所有消费者进度的一个下界
+     */
+    long get() {
+        return root.get();
+    }
+
+    /**
+     * 某个消费者推进了进度，沿路径向上更新，不是这棵树上的消费者就直接忽略
+     */
+    void update(final Sequence sequence) {
+        final Integer leafIndex = leafIndexes.get(sequence);
+        if (leafIndex == null) {
+            return;
+        }
+
+        // 消费者更新进度用的是有序写，这里加一个全屏障，保证下面读到的是其他消费者最新的进度
+        VarHandle.fullFence();
+
+        int index = leafIndex;
+        Sequence[] children = leaves;
+        for (final Sequence[] nodes : levels) {
+            index /= FANOUT;
+            if (!advance(nodes[index], minimumOfChildren(children, index))) {
+                // 这个节点没有变化，更上层的节点自然也不会变化
+                return;
+            }
+            children = nodes;
+        }
+    }
+
+    private static long minimumOfChildren(final Sequence[] children, final int node) {
+        long minimum = Long.MAX_VALUE;
+        for (int i = node * FANOUT, end = Math.min(i + FANOUT, children.length); i < end; i++) {
+            minimum = Math.min(minimum, children[i].getAcquire());
+        }
+        return minimum;
+    }
+
+    /**
+     * 只允许节点的值变大，并发更新时不会被旧的计算结果覆盖回去
+     */
+    private static boolean advance(final Sequence node, final long value) {
+        long current;
+        do {
+            current = node.get();
+            if (value <= current) {
+                return false;
+            }
+        }
+        while (!node.compareAndSet(current, value));
+        return true;
+    }
+}
@@ -0,0 +1,221 @@
+package com.moon.distuptor;
+
+import com.moon.distuptor.util.Util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 多生产者的序号生成器
+ * 生产者之间通过CAS竞争cursor来申请序号，每个槽位都有一个可用标志，用来判断该位置的数据是否真正发布了
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public class MultiProducerSequencer extends AbstractSequencer {
+
+    /**
+     * 按release/acquire方式读写availableBuffer数组中的元素
+     */
+    private static final VarHandle AVAILABLE_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * 缓存最慢消费者的进度，多个生产者会共同更新它，所以用Sequence包装
+     */
+    private final Sequence gatingSequenceCache = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    /**
+     * 每个槽位的可用标志，存储的是该槽位被写入时环形数组绕了几圈
+     * 消费者根据这个圈数判断这个槽位的数据是否已经被发布
+     */
+    private final int[] availableBuffer;
+
+    private final int indexMask;
+
+    private final int indexShift;
+
+    public MultiProducerSequencer(int bufferSize, final WaitStrategy waitStrategy) {
+        this(bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public MultiProducerSequencer(int bufferSize, final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy) {
+        super(bufferSize, waitStrategy, producerWaitStrategy);
+        availableBuffer = new int[bufferSize];
+        indexMask = bufferSize - 1;
+        indexShift = Util.log2(bufferSize);
+        initialiseAvailableBuffer();
+    }
+
+    @Override
+    public boolean hasAvailableCapacity(final int requiredCapacity) {
+        return hasAvailableCapacity(requiredCapacity, cursor.get());
+    }
+
+    private boolean hasAvailableCapacity(final int requiredCapacity, long cursorValue) {
+        long wrapPoint = (cursorValue + requiredCapacity) - bufferSize;
+        long cachedGatingSequence = gatingSequenceCache.get();
+
+        if (wrapPoint > cachedGatingSequence || cachedGatingSequence > cursorValue) {
+            long minSequence = minimumGatingSequence(wrapPoint, cursorValue);
+            gatingSequenceCache.set(minSequence);
+
+            if (wrapPoint > minSequence) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void claim(long sequence) {
+        cursor.set(sequence);
+    }
+
+    @Override
+    public long next() {
+        return next(1);
+    }
+
+    @Override
+    public long next(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+
+        long current;
+        long next;
+
+        do {
+            // 多生产者模式下，cursor代表的是已经分配出去的最大序号，而不是已经发布的最大序号
+            current = cursor.get();
+            next = current + n;
+
+            long wrapPoint = next - bufferSize;
+            long cachedGatingSequence = gatingSequenceCache.get();
+
+            if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current) {
+                long gatingSequence = minimumGatingSequence(wrapPoint, current);
+
+                if (wrapPoint > gatingSequence) {
+                    // 会覆盖尚未消费的数据，按照生产者等待策略等到有空位了再重新竞争
+                    producerWaitStrategy.waitFor(wrapPoint, this);
+                    continue;
+                }
+
+                gatingSequenceCache.set(gatingSequence);
+            } else if (cursor.compareAndSet(current, next)) {
+                // CAS成功，说明[current + 1, next]这段序号被当前生产者抢到了
+                break;
+            }
+        }
+        while (true);
+
+        return next;
+    }
+
+    @Override
+    public long tryNext() throws InsufficientCapacityException {
+        return tryNext(1);
+    }
+
+    @Override
+    public long tryNext(int n) throws InsufficientCapacityException {
+        final long sequence = tryNextSequence(n);
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            throw InsufficientCapacityException.INSTANCE;
+        }
+        return sequence;
+    }
+
+    @Override
+    public long tryNextSequence(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+
+        long current;
+        long next;
+
+        do {
+            current = cursor.get();
+            next = current + n;
+
+            if (!hasAvailableCapacity(n, current)) {
+                return INSUFFICIENT_CAPACITY;
+            }
+        }
+        while (!cursor.compareAndSet(current, next));
+
+        return next;
+    }
+
+    @Override
+    public long remainingCapacity() {
+        long consumed = Util.getMinimumSequence(gatingSequences, cursor.get());
+        long produced = cursor.get();
+        return getBufferSize() - (produced - consumed);
+    }
+
+    private void initialiseAvailableBuffer() {
+        for (int i = availableBuffer.length - 1; i != 0; i--) {
+            setAvailableBufferValue(i, -1);
+        }
+
+        setAvailableBufferValue(0, -1);
+    }
+
+    @Override
+    public void publish(final long sequence) {
+        // 多生产者模式下不能直接移动cursor，只把对应槽位标记为可用
+        setAvailable(sequence);
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    @Override
+    public void publish(long lo, long hi) {
+        for (long l = lo; l <= hi; l++) {
+            setAvailable(l);
+        }
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    private void setAvailable(final long sequence) {
+        setAvailableBufferValue(calculateIndex(sequence), calculateAvailabilityFlag(sequence));
+    }
+
+    private void setAvailableBufferValue(int index, int flag) {
+        AVAILABLE_ARRAY.setRelease(availableBuffer, index, flag);
+    }
+
+    @Override
+    public boolean isAvailable(long sequence) {
+        int index = calculateIndex(sequence);
+        int flag = calculateAvailabilityFlag(sequence);
+        // 和setRelease配对，读到标志之后，生产者在该槽位写入的数据也一定可见
+        return (int) AVAILABLE_ARRAY.getAcquire(availableBuffer, index) == flag;
+    }
+
+    @Override
+    public long getHighestPublishedSequence(long lowerBound, long availableSequence) {
+        // 从lowerBound开始向后找，遇到第一个还没发布的序号就截断，保证返回的序号之前都是连续发布的
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+
+        return availableSequence;
+    }
+
+    /**
+     * 计算序号对应的圈数
+     */
+    private int calculateAvailabilityFlag(final long sequence) {
+        return (int) (sequence >>> indexShift);
+    }
+
+    private int calculateIndex(final long sequence) {
+        return ((int) sequence) & indexMask;
+    }
+}
@@ -0,0 +1,131 @@
+package com.moon.distuptor;
+
+import com.moon.distuptor.dsl.ProducerType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 存放定长二进制记录的堆外环形数组
+ * 所有记录连续地存放在堆外内存中，不再为每个槽位创建一个事件对象，GC不需要扫描它们，顺序消费时也更容易被CPU预取
+ * 生产者和消费者通过get拿到槽位的视图RecordView来读写记录，申请序号、发布和消费的逻辑和RingBuffer完全一样，
+ * 它实现了DataProvider，所以可以直接交给BatchEventProcessor、EventPoller使用，消费者实现EventHandler<RecordView>即可
+ * 单个ByteBuffer最大只有2GB，所以内存被切分成若干块，每块存放2的幂个记录，总容量可以超过2GB
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class OffHeapRingBuffer extends AbstractSequencedRing implements EventSequencer<RecordView> {
+
+    /**
+     * 每块内存最大1GB
+     */
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+    private final int recordSize;
+
+    private final ByteBuffer[] chunks;
+
+    private final int indexMask;
+
+    //序号落在哪一块内存中，index >>> chunkShift
+    private final int chunkShift;
+
+    //序号在块中的位置，index & chunkMask
+    private final int chunkMask;
+
+    //每个线程一个视图对象，避免为每次读写创建对象
+    private final ThreadLocal<RecordView> views;
+
+    OffHeapRingBuffer(final int recordSize, final Sequencer sequencer) {
+        super(sequencer);
+        if (recordSize < 1 || recordSize > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("recordSize must be in [1, " + MAX_CHUNK_BYTES + "]");
+        }
+        this.recordSize = recordSize;
+        this.indexMask = bufferSize - 1;
+
+        final int recordsPerChunk = Math.min(bufferSize, Integer.highestOneBit(MAX_CHUNK_BYTES / recordSize));
+        this.chunkShift = Integer.numberOfTrailingZeros(recordsPerChunk);
+        this.chunkMask = recordsPerChunk - 1;
+
+        this.chunks = new ByteBuffer[bufferSize / recordsPerChunk];
+        for (int i = 0; i < chunks.length; i++) {
+            // 使用本机字节序，读写long、int时不需要交换字节
+            chunks[i] = ByteBuffer.allocateDirect(recordsPerChunk * recordSize).order(ByteOrder.nativeOrder());
+        }
+
+        this.views = ThreadLocal.withInitial(() -> new RecordView(recordSize));
+    }
+
+    public static OffHeapRingBuffer createSingleProducer(final int recordSize, final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(ProducerType.SINGLE, recordSize, bufferSize, waitStrategy);
+    }
+
+    public static OffHeapRingBuffer createMultiProducer(final int recordSize, final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(ProducerType.MULTI, recordSize, bufferSize, waitStrategy);
+    }
+
+    public static OffHeapRingBuffer create(
+            final ProducerType producerType, final int recordSize, final int bufferSize, final WaitStrategy waitStrategy) {
+        return create(producerType, recordSize, bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public static OffHeapRingBuffer create(
+            final ProducerType producerType, final int recordSize, final int bufferSize,
+            final WaitStrategy waitStrategy, final ProducerWaitStrategy producerWaitStrategy) {
+        return new OffHeapRingBuffer(recordSize, newSequencer(producerType, bufferSize, waitStrategy, producerWaitStrategy));
+    }
+
+    /**
+     * 返回序号对应槽位的视图，这个视图属于当前线程，在当前线程下一次调用get之前有效
+     */
+    @Override
+    public RecordView get(final long sequence) {
+        final int index = (int) sequence & indexMask;
+        return views.get().wrap(chunks[index >>> chunkShift], (index & chunkMask) * recordSize, sequence);
+    }
+
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    public void publishEvent(final EventTranslator<RecordView> translator) {
+        final long sequence = sequencer.next();
+        try {
+            translator.translateTo(get(sequence), sequence);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    public <A> void publishEvent(final EventTranslatorOneArg<RecordView, A> translator, final A arg0) {
+        final long sequence = sequencer.next();
+        try {
+            translator.translateTo(get(sequence), sequence, arg0);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    //批量发布，整批数据只申请一次序号，也只发布一次
+    public <A> void publishEvents(final EventTranslatorOneArg<RecordView, A> translator, final A[] args) {
+        if (args.length == 0) {
+            return;
+        }
+        final long finalSequence = sequencer.next(args.length);
+        final long initialSequence = finalSequence - (args.length - 1);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                final long sequence = initialSequence + i;
+                translator.translateTo(get(sequence), sequence, args[i]);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    public EventPoller<RecordView> newPoller(final Sequence... gatingSequences) {
+        return sequencer.newPoller(this, gatingSequences);
+    }
+}
@@ -0,0 +1,98 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分阶段退避的等待策略：先空转spinTimeout这么久，再让出CPU直到yieldTimeout，之后交给fallbackStrategy
+ * 数据来得快的时候像BusySpinWaitStrategy一样低延迟，长时间没有数据时退化成fallbackStrategy，不再占用CPU
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class PhasedBackoffWaitStrategy implements WaitStrategy {
+
+    /**
+     * 每空转这么多次才检查一次时间，System.nanoTime本身也有开销
+     */
+    private static final int SPIN_TRIES = 10000;
+
+    private final long spinTimeoutNanos;
+
+    private final long yieldTimeoutNanos;
+
+    private final WaitStrategy fallbackStrategy;
+
+    public PhasedBackoffWaitStrategy(
+            final long spinTimeout,
+            final long yieldTimeout,
+            final TimeUnit units,
+            final WaitStrategy fallbackStrategy) {
+        this.spinTimeoutNanos = units.toNanos(spinTimeout);
+        this.yieldTimeoutNanos = spinTimeoutNanos + units.toNanos(yieldTimeout);
+        this.fallbackStrategy = fallbackStrategy;
+    }
+
+    /**
+     * 最后退化成BlockingWaitStrategy
+     */
+    public static PhasedBackoffWaitStrategy withLock(final long spinTimeout, final long yieldTimeout, final TimeUnit units) {
+        return new PhasedBackoffWaitStrategy(spinTimeout, yieldTimeout, units, new BlockingWaitStrategy());
+    }
+
+    /**
+     * 最后退化成LiteBlockingWaitStrategy
+     */
+    public static PhasedBackoffWaitStrategy withLiteLock(final long spinTimeout, final long yieldTimeout, final TimeUnit units) {
+        return new PhasedBackoffWaitStrategy(spinTimeout, yieldTimeout, units, new LiteBlockingWaitStrategy());
+    }
+
+    /**
+     * 最后退化成SleepingWaitStrategy
+     */
+    public static PhasedBackoffWaitStrategy withSleep(final long spinTimeout, final long yieldTimeout, final TimeUnit units) {
+        return new PhasedBackoffWaitStrategy(spinTimeout, yieldTimeout, units, new SleepingWaitStrategy(0, 100));
+    }
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursor, final Sequence dependentSequence, final SequenceBarrier barrier)
+            throws AlertException, InterruptedException, TimeoutException {
+        long availableSequence;
+        long startTime = 0;
+        int counter = SPIN_TRIES;
+
+        do {
+            if ((availableSequence = dependentSequence.getAcquire()) >= sequence) {
+                return availableSequence;
+            }
+
+            barrier.checkAlert();
+
+            if (0 == --counter) {
+                if (0 == startTime) {
+                    startTime = System.nanoTime();
+                } else {
+                    final long timeDelta = System.nanoTime() - startTime;
+                    if (timeDelta > yieldTimeoutNanos) {
+                        // 让出CPU的阶段也结束了，交给兜底的等待策略
+                        return fallbackStrategy.waitFor(sequence, cursor, dependentSequence, barrier);
+                    } else if (timeDelta > spinTimeoutNanos) {
+                        Thread.yield();
+                    }
+                }
+                counter = SPIN_TRIES;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        while (true);
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        fallbackStrategy.signalAllWhenBlocking();
+    }
+
+    WaitStrategy getFallbackStrategy() {
+        return fallbackStrategy;
+    }
+}
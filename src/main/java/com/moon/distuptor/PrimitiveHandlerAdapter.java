@@ -0,0 +1,66 @@
+package com.moon.distuptor;
+
+/**
+ * 把基本类型环形数组的消费者适配成EventHandler，这样可以直接复用BatchEventProcessor
+ * 基本类型环形数组没有事件对象，BatchEventProcessor拿到的事件永远是null，真正的值由dispatcher按序号从数组中读取
+ * 用户的handler如果实现了LifecycleAware、TimeoutHandler、BatchStartAware，这里负责转发
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+final class PrimitiveHandlerAdapter implements EventHandler<Void>, LifecycleAware, TimeoutHandler, BatchStartAware {
+
+    /**
+     * 按序号读取值并交给用户的handler
+     */
+    interface Dispatcher {
+        void onEvent(long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    /**
+     * 基本类型环形数组交给BatchEventProcessor的DataProvider，不提供事件对象
+     */
+    static final DataProvider<Void> NO_EVENTS = sequence -> null;
+
+    private final Object handler;
+
+    private final Dispatcher dispatcher;
+
+    PrimitiveHandlerAdapter(final Object handler, final Dispatcher dispatcher) {
+        this.handler = handler;
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void onEvent(final Void event, final long sequence, final boolean endOfBatch) throws Exception {
+        dispatcher.onEvent(sequence, endOfBatch);
+    }
+
+    @Override
+    public void onStart() {
+        if (handler instanceof LifecycleAware) {
+            ((LifecycleAware) handler).onStart();
+        }
+    }
+
+    @Override
+    public void onShutdown() {
+        if (handler instanceof LifecycleAware) {
+            ((LifecycleAware) handler).onShutdown();
+        }
+    }
+
+    @Override
+    public void onTimeout(final long sequence) throws Exception {
+        if (handler instanceof TimeoutHandler) {
+            ((TimeoutHandler) handler).onTimeout(sequence);
+        }
+    }
+
+    @Override
+    public void onBatchStart(final long batchSize) {
+        if (handler instanceof BatchStartAware) {
+            ((BatchStartAware) handler).onBatchStart(batchSize);
+        }
+    }
+}
@@ -16,6 +16,11 @@ public class ProcessingSequenceBarrier implements SequenceBarrier{
      */
     private final Sequence dependentSequence;
 
+    /**
+     * 依赖多个上游消费者时，dependentSequence就是这个组，方便直接读取缓存的最小值
+     */
+    private final FixedSequenceGroup dependentGroup;
+
     private volatile boolean alerted = false;
 
     /**
@@ -38,9 +43,15 @@ public class ProcessingSequenceBarrier implements SequenceBarrier{
         if (0 == dependentSequences.length) {
             // 不依赖其他消费者，所以默认依赖生产者
             dependentSequence = cursorSequence;
+            dependentGroup = null;
+        } else if (1 == dependentSequences.length) {
+            // 只依赖一个上游消费者，直接等待它的进度，不需要再包装一层
+            dependentSequence = dependentSequences[0];
+            dependentGroup = null;
         } else {
-            // TODO FIXME
-            dependentSequence = cursorSequence;
+            // 依赖多个上游消费者，要等待它们中最慢的那个
+            dependentGroup = new FixedSequenceGroup(dependentSequences);
+            dependentSequence = dependentGroup;
         }
     }
 
@@ -51,7 +62,12 @@ public class ProcessingSequenceBarrier implements SequenceBarrier{
      */
     public long waitFor(final long sequence) throws AlertException, InterruptedException, TimeoutException {
         checkAlert();
-        long availableSequence = waitStrategy.waitFor(sequence, cursorSequence, dependentSequence, this);
+        long availableSequence;
+        if (dependentGroup != null && (availableSequence = dependentGroup.getCachedMinimum()) >= sequence) {
+            // 上一次算出来的上游最小进度已经够用了，不需要再扫描所有上游，也不需要进入等待策略
+            return sequencer.getHighestPublishedSequence(sequence, availableSequence);
+        }
+        availableSequence = waitStrategy.waitFor(sequence, cursorSequence, dependentSequence, this);
         if (availableSequence < sequence) {
             return availableSequence;
         }
@@ -87,4 +103,9 @@ public class ProcessingSequenceBarrier implements SequenceBarrier{
             throw AlertException.INSTANCE;
         }
     }
+
+    @Override
+    public void signalProducers(Sequence consumerSequence) {
+        sequencer.signalProducers(consumerSequence);
+    }
 }
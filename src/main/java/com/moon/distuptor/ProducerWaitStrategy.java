@@ -0,0 +1,24 @@
+package com.moon.distuptor;
+
+/**
+ * 生产者的等待策略，环形数组满了之后，生产者要等待最慢的消费者腾出位置
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public interface ProducerWaitStrategy {
+
+    /**
+     * 一直等到最慢的消费者进度不小于wrapPoint为止
+     *
+     * @param wrapPoint 生产者申请序号后，最慢的消费者至少要到达的进度
+     * @param sequencer 用来获取最新的最慢消费者进度
+     * @return 最新的最慢消费者进度
+     */
+    long waitFor(long wrapPoint, Sequencer sequencer);
+
+    /**
+     * 消费者推进了自己的消费进度之后调用，唤醒阻塞中的生产者
+     */
+    void signalAllWhenBlocking();
+}
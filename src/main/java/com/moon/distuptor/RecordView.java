@@ -0,0 +1,95 @@
+package com.moon.distuptor;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * 堆外环形数组中一个槽位的视图，也就是享元对象
+ * 视图本身不存数据，只记录当前指向哪块内存的哪个位置，所有读写都直接作用在堆外内存上
+ * 每个线程有自己的视图对象，OffHeapRingBuffer.get返回的视图在同一个线程下一次调用get之前有效
+ * 所有的offset都是相对于记录起始位置的字节偏移，越界会抛出IndexOutOfBoundsException
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class RecordView {
+
+    private final int recordSize;
+
+    private ByteBuffer buffer;
+
+    //记录在buffer中的起始位置
+    private int base;
+
+    private long sequence;
+
+    RecordView(final int recordSize) {
+        this.recordSize = recordSize;
+    }
+
+    RecordView wrap(final ByteBuffer buffer, final int base, final long sequence) {
+        this.buffer = buffer;
+        this.base = base;
+        this.sequence = sequence;
+        return this;
+    }
+
+    //当前视图指向的记录的序号
+    public long sequence() {
+        return sequence;
+    }
+
+    public int recordSize() {
+        return recordSize;
+    }
+
+    public byte getByte(final int offset) {
+        return buffer.get(index(offset, Byte.BYTES));
+    }
+
+    public RecordView putByte(final int offset, final byte value) {
+        buffer.put(index(offset, Byte.BYTES), value);
+        return this;
+    }
+
+    public int getInt(final int offset) {
+        return buffer.getInt(index(offset, Integer.BYTES));
+    }
+
+    public RecordView putInt(final int offset, final int value) {
+        buffer.putInt(index(offset, Integer.BYTES), value);
+        return this;
+    }
+
+    public long getLong(final int offset) {
+        return buffer.getLong(index(offset, Long.BYTES));
+    }
+
+    public RecordView putLong(final int offset, final long value) {
+        buffer.putLong(index(offset, Long.BYTES), value);
+        return this;
+    }
+
+    public double getDouble(final int offset) {
+        return buffer.getDouble(index(offset, Double.BYTES));
+    }
+
+    public RecordView putDouble(final int offset, final double value) {
+        buffer.putDouble(index(offset, Double.BYTES), value);
+        return this;
+    }
+
+    //把记录中从offset开始的length个字节复制到dst中
+    public void getBytes(final int offset, final byte[] dst, final int dstOffset, final int length) {
+        buffer.get(index(offset, length), dst, dstOffset, length);
+    }
+
+    public RecordView putBytes(final int offset, final byte[] src, final int srcOffset, final int length) {
+        buffer.put(index(offset, length), src, srcOffset, length);
+        return this;
+    }
+
+    private int index(final int offset, final int length) {
+        return base + Objects.checkFromIndexSize(offset, length, recordSize);
+    }
+}
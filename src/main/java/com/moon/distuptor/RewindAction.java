@@ -0,0 +1,19 @@
+package com.moon.distuptor;
+
+/**
+ * 批次处理失败后要采取的动作
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public enum RewindAction {
+    /**
+     * 重新处理本批次
+     */
+    REWIND,
+
+    /**
+     * 放弃重试，把异常交给异常处理器
+     */
+    THROW
+}
@@ -0,0 +1,14 @@
+package com.moon.distuptor;
+
+/**
+ * 支持批次重放的消费者接口，onEvent抛出RewindableException时，处理器会从本批次第一个未提交的事件开始重新处理
+ * 实现类需要保证重复处理同一个事件是安全的，比如数据库写入使用幂等的语句
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public interface RewindableEventHandler<T> extends EventHandler<T> {
+
+    @Override
+    void onEvent(T event, long sequence, boolean endOfBatch) throws RewindableException, Exception;
+}
@@ -0,0 +1,17 @@
+package com.moon.distuptor;
+
+/**
+ * RewindableEventHandler抛出这个异常，表示本批次遇到的是暂时性的失败，希望整批重新处理
+ * 是否真的重新处理，由BatchRewindStrategy决定
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public class RewindableException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public RewindableException(final Throwable cause) {
+        super("REWINDING BATCH", cause);
+    }
+}
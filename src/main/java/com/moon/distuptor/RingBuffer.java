@@ -1,8 +1,9 @@
 package com.moon.distuptor;
 
 import com.moon.distuptor.dsl.ProducerType;
-import com.moon.distuptor.util.Util;
-import sun.misc.Unsafe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * @author Chanmoey
@@ -17,36 +18,9 @@ abstract class RingBufferPad {
 
 abstract class RingBufferFields<E> extends RingBufferPad {
     /**
-     * 要在数组自身中填充的空数据个数
-     */
-    private static final int BUFFER_PAD;
-
-    /**
-     * 数组中，第一个有效部分在数组中的内存偏移量（数组有对象头）
+     * 要在数组自身中填充的空数据个数，数组前后各填充32个引用，保证有效数据不会和其他对象共享缓存行
      */
-    private static final long REF_ARRAY_BASE;
-
-    /**
-     * 数组中，应该填充的空白字节大小
-     */
-    private static final int REF_ELEMENT_SHIFT;
-
-    private static final Unsafe UNSAFE = Util.getUnsafe();
-
-    static {
-        // 计算数组中，每个位置的字节大小，一般都是4字节
-        final int scale = UNSAFE.arrayIndexScale(Object[].class);
-        if (4 == scale) {
-            REF_ELEMENT_SHIFT = 2;
-        } else if (8 == scale) {
-            REF_ELEMENT_SHIFT = 3;
-        } else {
-            throw new IllegalStateException("Unknown pointer size");
-        }
-        // 计算出来的是32
-        BUFFER_PAD = 128 / scale;
-        REF_ARRAY_BASE = UNSAFE.arrayBaseOffset(Object[].class) + (BUFFER_PAD << REF_ELEMENT_SHIFT);
-    }
+    private static final int BUFFER_PAD = 32;
 
     private final long indexMask;
 
@@ -83,8 +57,8 @@ abstract class RingBufferFields<E> extends RingBufferPad {
 
     @SuppressWarnings("unchecked")
     protected final E elementAt(long sequence) {
-        // TODO 理解这里
-        return (E) UNSAFE.getObject(entries, REF_ARRAY_BASE + ((sequence & indexMask) << REF_ELEMENT_SHIFT));
+        // 槽位里的对象在构造时就创建好了，之后不会再替换，普通读就够了，可见性由Sequence的acquire/release保证
+        return (E) entries[BUFFER_PAD + (int) (sequence & indexMask)];
     }
 }
 
@@ -92,6 +66,10 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
 
     public static final long INITIAL_CURSOR_VALUE = Sequence.INITIAL_VALUE;
 
+    //带超时发布时，等待空位的挂起时间范围
+    private static final long MIN_TIMED_PARK_NANOS = 1_000L;
+    private static final long MAX_TIMED_PARK_NANOS = 100_000L;
+
     // TODO 理解这里
     protected long p1, p2, p3, p4, p5, p6, p7;
 
@@ -99,21 +77,60 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         super(eventFactory, sequencer);
     }
 
+    public static <E> RingBuffer<E> createMultiProducer(EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+        return createMultiProducer(factory, bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public static <E> RingBuffer<E> createMultiProducer(
+            EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy, ProducerWaitStrategy producerWaitStrategy) {
+        //创建多生产者序列号生成器
+        MultiProducerSequencer sequencer = new MultiProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy);
+        //创建环形数组
+        return new RingBuffer<E>(factory, sequencer);
+    }
+
+    public static <E> RingBuffer<E> createCombiningMultiProducer(EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+        return createCombiningMultiProducer(factory, bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public static <E> RingBuffer<E> createCombiningMultiProducer(
+            EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy, ProducerWaitStrategy producerWaitStrategy) {
+        //创建基于flat-combining的多生产者序列号生成器
+        CombiningMultiProducerSequencer sequencer =
+                new CombiningMultiProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy);
+        //创建环形数组
+        return new RingBuffer<E>(factory, sequencer);
+    }
+
     public static <E> RingBuffer<E> createSingleProducer(EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+        return createSingleProducer(factory, bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public static <E> RingBuffer<E> createSingleProducer(
+            EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy, ProducerWaitStrategy producerWaitStrategy) {
         //创建单生产者序列号生成器
-        SingleProducerSequencer sequencer = new SingleProducerSequencer(bufferSize, waitStrategy);
+        SingleProducerSequencer sequencer = new SingleProducerSequencer(bufferSize, waitStrategy, producerWaitStrategy);
         //创建环形数组
         return new RingBuffer<E>(factory, sequencer);
     }
 
     public static <E> RingBuffer<E> create(ProducerType producerType, EventFactory<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+        return create(producerType, factory, bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public static <E> RingBuffer<E> create(
+            ProducerType producerType, EventFactory<E> factory, int bufferSize,
+            WaitStrategy waitStrategy, ProducerWaitStrategy producerWaitStrategy) {
         switch (producerType) {
             //创建单生产者模式下的序列号生成器
             case SINGLE:
-                return createSingleProducer(factory, bufferSize, waitStrategy);
-            //下面创建的是多生产者序号生成器，但多生产者还未引入，所以先注释了
-//            case MULTI:
-//                return createMultiProducer(factory, bufferSize, waitStrategy);
+                return createSingleProducer(factory, bufferSize, waitStrategy, producerWaitStrategy);
+            //创建多生产者模式下的序列号生成器
+            case MULTI:
+                return createMultiProducer(factory, bufferSize, waitStrategy, producerWaitStrategy);
+            //创建flat-combining模式下的多生产者序列号生成器
+            case MULTI_COMBINING:
+                return createCombiningMultiProducer(factory, bufferSize, waitStrategy, producerWaitStrategy);
             default:
                 throw new IllegalStateException(producerType.toString());
         }
@@ -144,6 +161,11 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return sequencer.tryNext(n);
     }
 
+    @Override
+    public long tryNextSequence(int n) {
+        return sequencer.tryNextSequence(n);
+    }
+
     @Deprecated
     public void resetTo(long sequence) {
         sequencer.claim(sequence);
@@ -181,11 +203,10 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         return sequencer.newBarrier(sequencesToTrack);
     }
 
-
-//    public EventPoller<E> newPoller(Sequence... gatingSequences)
-//    {
-//        return sequencer.newPoller(this, gatingSequences);
-//    }
+    //创建一个拉模式的消费者，gatingSequences是它依赖的上游消费者进度，不传就只依赖生产者
+    public EventPoller<E> newPoller(Sequence... gatingSequences) {
+        return sequencer.newPoller(this, gatingSequences);
+    }
 
     //获得当前生产者的序号
     @Override
@@ -210,23 +231,6 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         translateAndPublish(translator, sequence);
     }
 
-
-//    @Override
-//    public boolean tryPublishEvent(EventTranslator<E> translator)
-//    {
-//        try
-//        {
-//            final long sequence = sequencer.tryNext();
-//            translateAndPublish(translator, sequence);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
-//
-
     @Override
     public <A> void publishEvent(EventTranslatorOneArg<E, A> translator, A arg0) {
         //首先获得可用的生产者序号，生产者发布的信息就可以存放到该位置
@@ -235,327 +239,260 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         translateAndPublish(translator, sequence, arg0);
     }
 
+    @Override
+    public <A, B> void publishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1) {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, arg0, arg1);
+    }
+
+    @Override
+    public <A, B, C> void publishEvent(EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2) {
+        final long sequence = sequencer.next();
+        translateAndPublish(translator, sequence, arg0, arg1, arg2);
+    }
+
+    @Override
+    public void publishVarargEvent(EventTranslatorVararg<E> translator, Object... args) {
+        final long sequence = sequencer.next();
+        translateAndPublishVararg(translator, sequence, args);
+    }
+
+    @Override
+    public boolean tryPublishEvent(EventTranslator<E> translator) {
+        //申请不到序号时返回的是INSUFFICIENT_CAPACITY，不再用异常来做流程控制
+        final long sequence = sequencer.tryNextSequence(1);
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublish(translator, sequence);
+        return true;
+    }
+
+    @Override
+    public <A> boolean tryPublishEvent(EventTranslatorOneArg<E, A> translator, A arg0) {
+        final long sequence = sequencer.tryNextSequence(1);
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublish(translator, sequence, arg0);
+        return true;
+    }
+
+    @Override
+    public <A, B> boolean tryPublishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1) {
+        final long sequence = sequencer.tryNextSequence(1);
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublish(translator, sequence, arg0, arg1);
+        return true;
+    }
+
+    @Override
+    public <A, B, C> boolean tryPublishEvent(EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2) {
+        final long sequence = sequencer.tryNextSequence(1);
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublish(translator, sequence, arg0, arg1, arg2);
+        return true;
+    }
+
+    @Override
+    public boolean tryPublishVarargEvent(EventTranslatorVararg<E> translator, Object... args) {
+        final long sequence = sequencer.tryNextSequence(1);
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublishVararg(translator, sequence, args);
+        return true;
+    }
+
+    @Override
+    public boolean publishEvent(EventTranslator<E> translator, long timeout, TimeUnit unit) {
+        final long sequence = nextBefore(System.nanoTime() + unit.toNanos(timeout));
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublish(translator, sequence);
+        return true;
+    }
+
+    @Override
+    public <A> boolean publishEvent(EventTranslatorOneArg<E, A> translator, A arg0, long timeout, TimeUnit unit) {
+        final long sequence = nextBefore(System.nanoTime() + unit.toNanos(timeout));
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublish(translator, sequence, arg0);
+        return true;
+    }
+
+    @Override
+    public <A, B> boolean publishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1, long timeout, TimeUnit unit) {
+        final long sequence = nextBefore(System.nanoTime() + unit.toNanos(timeout));
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublish(translator, sequence, arg0, arg1);
+        return true;
+    }
+
+    @Override
+    public <A, B, C> boolean publishEvent(
+            EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2, long timeout, TimeUnit unit) {
+        final long sequence = nextBefore(System.nanoTime() + unit.toNanos(timeout));
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublish(translator, sequence, arg0, arg1, arg2);
+        return true;
+    }
+
+    @Override
+    public void publishEvents(EventTranslator<E>[] translators) {
+        publishEvents(translators, 0, translators.length);
+    }
+
+    @Override
+    public void publishEvents(EventTranslator<E>[] translators, int batchStartsAt, int batchSize) {
+        checkBounds(translators, batchStartsAt, batchSize);
+        //一次性申请batchSize个序号，返回的是这一批中最大的那个序号
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translators, batchStartsAt, batchSize, finalSequence);
+    }
+
+    @Override
+    public boolean tryPublishEvents(EventTranslator<E>[] translators) {
+        return tryPublishEvents(translators, 0, translators.length);
+    }
+
+    @Override
+    public boolean tryPublishEvents(EventTranslator<E>[] translators, int batchStartsAt, int batchSize) {
+        checkBounds(translators, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.tryNextSequence(batchSize);
+        if (finalSequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublishBatch(translators, batchStartsAt, batchSize, finalSequence);
+        return true;
+    }
+
+    @Override
+    public <A> void publishEvents(EventTranslatorOneArg<E, A> translator, A[] arg0) {
+        publishEvents(translator, 0, arg0.length, arg0);
+    }
 
-//    @Override
-//    public <A> boolean tryPublishEvent(EventTranslatorOneArg<E, A> translator, A arg0)
-//    {
-//        try
-//        {
-//            final long sequence = sequencer.tryNext();
-//            translateAndPublish(translator, sequence, arg0);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
-//
-
-
-//    @Override
-//    public <A, B> void publishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1)
-//    {
-//        final long sequence = sequencer.next();
-//        translateAndPublish(translator, sequence, arg0, arg1);
-//    }
-//
-
-
-//    @Override
-//    public <A, B> boolean tryPublishEvent(EventTranslatorTwoArg<E, A, B> translator, A arg0, B arg1)
-//    {
-//        try
-//        {
-//            final long sequence = sequencer.tryNext();
-//            translateAndPublish(translator, sequence, arg0, arg1);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
-//
-
-
-//    @Override
-//    public <A, B, C> void publishEvent(EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2)
-//    {
-//        final long sequence = sequencer.next();
-//        translateAndPublish(translator, sequence, arg0, arg1, arg2);
-//    }
-//
-
-
-//    @Override
-//    public <A, B, C> boolean tryPublishEvent(EventTranslatorThreeArg<E, A, B, C> translator, A arg0, B arg1, C arg2)
-//    {
-//        try
-//        {
-//            final long sequence = sequencer.tryNext();
-//            translateAndPublish(translator, sequence, arg0, arg1, arg2);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
-//
-
-
-//    @Override
-//    public void publishEvent(EventTranslatorVararg<E> translator, Object... args)
-//    {
-//        final long sequence = sequencer.next();
-//        translateAndPublish(translator, sequence, args);
-//    }
-//
-
-
-//    @Override
-//    public boolean tryPublishEvent(EventTranslatorVararg<E> translator, Object... args)
-//    {
-//        try
-//        {
-//            final long sequence = sequencer.tryNext();
-//            translateAndPublish(translator, sequence, args);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
-//
-
-
-//    @Override
-//    public void publishEvents(EventTranslator<E>[] translators)
-//    {
-//        publishEvents(translators, 0, translators.length);
-//    }
-//
-
-
-//    @Override
-//    public void publishEvents(EventTranslator<E>[] translators, int batchStartsAt, int batchSize)
-//    {
-//        checkBounds(translators, batchStartsAt, batchSize);
-//        final long finalSequence = sequencer.next(batchSize);
-//        translateAndPublishBatch(translators, batchStartsAt, batchSize, finalSequence);
-//    }
-//
-
-
-//    @Override
-//    public boolean tryPublishEvents(EventTranslator<E>[] translators)
-//    {
-//        return tryPublishEvents(translators, 0, translators.length);
-//    }
-//
-
-
-//    @Override
-//    public boolean tryPublishEvents(EventTranslator<E>[] translators, int batchStartsAt, int batchSize)
-//    {
-//        checkBounds(translators, batchStartsAt, batchSize);
-//        try
-//        {
-//            final long finalSequence = sequencer.tryNext(batchSize);
-//            translateAndPublishBatch(translators, batchStartsAt, batchSize, finalSequence);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
-//
-
-
-//    @Override
-//    public <A> void publishEvents(EventTranslatorOneArg<E, A> translator, A[] arg0)
-//    {
-//        publishEvents(translator, 0, arg0.length, arg0);
-//    }
-//
-
-
-//    @Override
-//    public <A> void publishEvents(EventTranslatorOneArg<E, A> translator, int batchStartsAt, int batchSize, A[] arg0)
-//    {
-//        checkBounds(arg0, batchStartsAt, batchSize);
-//        final long finalSequence = sequencer.next(batchSize);
-//        translateAndPublishBatch(translator, arg0, batchStartsAt, batchSize, finalSequence);
-//    }
-//
-
-
-//    @Override
-//    public <A> boolean tryPublishEvents(EventTranslatorOneArg<E, A> translator, A[] arg0)
-//    {
-//        return tryPublishEvents(translator, 0, arg0.length, arg0);
-//    }
-//
-
-
-//    @Override
-//    public <A> boolean tryPublishEvents(
-//            EventTranslatorOneArg<E, A> translator, int batchStartsAt, int batchSize, A[] arg0)
-//    {
-//        checkBounds(arg0, batchStartsAt, batchSize);
-//        try
-//        {
-//            final long finalSequence = sequencer.tryNext(batchSize);
-//            translateAndPublishBatch(translator, arg0, batchStartsAt, batchSize, finalSequence);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
-//
-
-
-//    @Override
-//    public <A, B> void publishEvents(EventTranslatorTwoArg<E, A, B> translator, A[] arg0, B[] arg1)
-//    {
-//        publishEvents(translator, 0, arg0.length, arg0, arg1);
-//    }
-//
-
-
-//    @Override
-//    public <A, B> void publishEvents(
-//            EventTranslatorTwoArg<E, A, B> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1)
-//    {
-//        checkBounds(arg0, arg1, batchStartsAt, batchSize);
-//        final long finalSequence = sequencer.next(batchSize);
-//        translateAndPublishBatch(translator, arg0, arg1, batchStartsAt, batchSize, finalSequence);
-//    }
-//
-
-
-//    @Override
-//    public <A, B> boolean tryPublishEvents(EventTranslatorTwoArg<E, A, B> translator, A[] arg0, B[] arg1)
-//    {
-//        return tryPublishEvents(translator, 0, arg0.length, arg0, arg1);
-//    }
-//
-
-
-//    @Override
-//    public <A, B> boolean tryPublishEvents(
-//            EventTranslatorTwoArg<E, A, B> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1)
-//    {
-//        checkBounds(arg0, arg1, batchStartsAt, batchSize);
-//        try
-//        {
-//            final long finalSequence = sequencer.tryNext(batchSize);
-//            translateAndPublishBatch(translator, arg0, arg1, batchStartsAt, batchSize, finalSequence);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
-//
-
-
-//    @Override
-//    public <A, B, C> void publishEvents(EventTranslatorThreeArg<E, A, B, C> translator, A[] arg0, B[] arg1, C[] arg2)
-//    {
-//        publishEvents(translator, 0, arg0.length, arg0, arg1, arg2);
-//    }
-//
-
-
-//    @Override
-//    public <A, B, C> void publishEvents(
-//            EventTranslatorThreeArg<E, A, B, C> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1, C[] arg2)
-//    {
-//        checkBounds(arg0, arg1, arg2, batchStartsAt, batchSize);
-//        final long finalSequence = sequencer.next(batchSize);
-//        translateAndPublishBatch(translator, arg0, arg1, arg2, batchStartsAt, batchSize, finalSequence);
-//    }
-//
-
-
-//    @Override
-//    public <A, B, C> boolean tryPublishEvents(
-//            EventTranslatorThreeArg<E, A, B, C> translator, A[] arg0, B[] arg1, C[] arg2)
-//    {
-//        return tryPublishEvents(translator, 0, arg0.length, arg0, arg1, arg2);
-//    }
-//
-
-
-//    @Override
-//    public <A, B, C> boolean tryPublishEvents(
-//            EventTranslatorThreeArg<E, A, B, C> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1, C[] arg2)
-//    {
-//        checkBounds(arg0, arg1, arg2, batchStartsAt, batchSize);
-//        try
-//        {
-//            final long finalSequence = sequencer.tryNext(batchSize);
-//            translateAndPublishBatch(translator, arg0, arg1, arg2, batchStartsAt, batchSize, finalSequence);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
-//
-
-
-//    @Override
-//    public void publishEvents(EventTranslatorVararg<E> translator, Object[]... args)
-//    {
-//        publishEvents(translator, 0, args.length, args);
-//    }
-//
-
-
-//    @Override
-//    public void publishEvents(EventTranslatorVararg<E> translator, int batchStartsAt, int batchSize, Object[]... args)
-//    {
-//        checkBounds(batchStartsAt, batchSize, args);
-//        final long finalSequence = sequencer.next(batchSize);
-//        translateAndPublishBatch(translator, batchStartsAt, batchSize, finalSequence, args);
-//    }
-//
-
-
-//    @Override
-//    public boolean tryPublishEvents(EventTranslatorVararg<E> translator, Object[]... args)
-//    {
-//        return tryPublishEvents(translator, 0, args.length, args);
-//    }
-//
-
-
-//    @Override
-//    public boolean tryPublishEvents(
-//            EventTranslatorVararg<E> translator, int batchStartsAt, int batchSize, Object[]... args)
-//    {
-//        checkBounds(args, batchStartsAt, batchSize);
-//        try
-//        {
-//            final long finalSequence = sequencer.tryNext(batchSize);
-//            translateAndPublishBatch(translator, batchStartsAt, batchSize, finalSequence, args);
-//            return true;
-//        }
-//        catch (InsufficientCapacityException e)
-//        {
-//            return false;
-//        }
-//    }
+    @Override
+    public <A> void publishEvents(EventTranslatorOneArg<E, A> translator, int batchStartsAt, int batchSize, A[] arg0) {
+        checkBounds(arg0, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, arg0, batchStartsAt, batchSize, finalSequence);
+    }
 
+    @Override
+    public <A> boolean tryPublishEvents(EventTranslatorOneArg<E, A> translator, A[] arg0) {
+        return tryPublishEvents(translator, 0, arg0.length, arg0);
+    }
+
+    @Override
+    public <A> boolean tryPublishEvents(EventTranslatorOneArg<E, A> translator, int batchStartsAt, int batchSize, A[] arg0) {
+        checkBounds(arg0, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.tryNextSequence(batchSize);
+        if (finalSequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublishBatch(translator, arg0, batchStartsAt, batchSize, finalSequence);
+        return true;
+    }
+
+    @Override
+    public <A, B> void publishEvents(EventTranslatorTwoArg<E, A, B> translator, A[] arg0, B[] arg1) {
+        publishEvents(translator, 0, arg0.length, arg0, arg1);
+    }
+
+    @Override
+    public <A, B> void publishEvents(
+            EventTranslatorTwoArg<E, A, B> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1) {
+        checkBounds(arg0, arg1, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, arg0, arg1, batchStartsAt, batchSize, finalSequence);
+    }
+
+    @Override
+    public <A, B> boolean tryPublishEvents(EventTranslatorTwoArg<E, A, B> translator, A[] arg0, B[] arg1) {
+        return tryPublishEvents(translator, 0, arg0.length, arg0, arg1);
+    }
+
+    @Override
+    public <A, B> boolean tryPublishEvents(
+            EventTranslatorTwoArg<E, A, B> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1) {
+        checkBounds(arg0, arg1, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.tryNextSequence(batchSize);
+        if (finalSequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublishBatch(translator, arg0, arg1, batchStartsAt, batchSize, finalSequence);
+        return true;
+    }
+
+    @Override
+    public <A, B, C> void publishEvents(EventTranslatorThreeArg<E, A, B, C> translator, A[] arg0, B[] arg1, C[] arg2) {
+        publishEvents(translator, 0, arg0.length, arg0, arg1, arg2);
+    }
+
+    @Override
+    public <A, B, C> void publishEvents(
+            EventTranslatorThreeArg<E, A, B, C> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1, C[] arg2) {
+        checkBounds(arg0, arg1, arg2, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, arg0, arg1, arg2, batchStartsAt, batchSize, finalSequence);
+    }
+
+    @Override
+    public <A, B, C> boolean tryPublishEvents(EventTranslatorThreeArg<E, A, B, C> translator, A[] arg0, B[] arg1, C[] arg2) {
+        return tryPublishEvents(translator, 0, arg0.length, arg0, arg1, arg2);
+    }
+
+    @Override
+    public <A, B, C> boolean tryPublishEvents(
+            EventTranslatorThreeArg<E, A, B, C> translator, int batchStartsAt, int batchSize, A[] arg0, B[] arg1, C[] arg2) {
+        checkBounds(arg0, arg1, arg2, batchStartsAt, batchSize);
+        final long finalSequence = sequencer.tryNextSequence(batchSize);
+        if (finalSequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublishBatch(translator, arg0, arg1, arg2, batchStartsAt, batchSize, finalSequence);
+        return true;
+    }
+
+    @Override
+    public void publishVarargEvents(EventTranslatorVararg<E> translator, Object[]... args) {
+        publishVarargEvents(translator, 0, args.length, args);
+    }
+
+    @Override
+    public void publishVarargEvents(EventTranslatorVararg<E> translator, int batchStartsAt, int batchSize, Object[]... args) {
+        checkBounds(batchStartsAt, batchSize, args);
+        final long finalSequence = sequencer.next(batchSize);
+        translateAndPublishBatch(translator, batchStartsAt, batchSize, finalSequence, args);
+    }
+
+    @Override
+    public boolean tryPublishVarargEvents(EventTranslatorVararg<E> translator, Object[]... args) {
+        return tryPublishVarargEvents(translator, 0, args.length, args);
+    }
+
+    @Override
+    public boolean tryPublishVarargEvents(EventTranslatorVararg<E> translator, int batchStartsAt, int batchSize, Object[]... args) {
+        checkBounds(batchStartsAt, batchSize, args);
+        final long finalSequence = sequencer.tryNextSequence(batchSize);
+        if (finalSequence == INSUFFICIENT_CAPACITY) {
+            return false;
+        }
+        translateAndPublishBatch(translator, batchStartsAt, batchSize, finalSequence, args);
+        return true;
+    }
 
     //通知其他消费者这个序号位置可以消费了
     @Override
@@ -616,6 +553,24 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
         }
     }
 
+    /**
+     * 在截止时间之前不断尝试申请一个序号，超过截止时间还没申请到就返回INSUFFICIENT_CAPACITY
+     */
+    private long nextBefore(final long deadlineNanos) {
+        long sequence;
+        //挂起时间从1微秒开始翻倍，避免反复挂起1纳秒造成的频繁切换，在虚拟线程上也能让出载体线程
+        long parkNanos = MIN_TIMED_PARK_NANOS;
+        while ((sequence = sequencer.tryNextSequence(1)) == INSUFFICIENT_CAPACITY) {
+            final long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return INSUFFICIENT_CAPACITY;
+            }
+            LockSupport.parkNanos(Math.min(parkNanos, remaining));
+            parkNanos = Math.min(parkNanos << 1, MAX_TIMED_PARK_NANOS);
+        }
+        return sequence;
+    }
+
     private void translateAndPublish(EventTranslator<E> translator, long sequence) {
         try {
             translator.translateTo(get(sequence), sequence);
@@ -633,153 +588,107 @@ public final class RingBuffer<E> extends RingBufferFields<E> implements Cursored
     }
 
 
-//    private <A, B> void translateAndPublish(EventTranslatorTwoArg<E, A, B> translator, long sequence, A arg0, B arg1)
-//    {
-//        try
-//        {
-//            translator.translateTo(get(sequence), sequence, arg0, arg1);
-//        }
-//        finally
-//        {
-//            sequencer.publish(sequence);
-//        }
-//    }
-
-
-//    private <A, B, C> void translateAndPublish(
-//            EventTranslatorThreeArg<E, A, B, C> translator, long sequence,
-//            A arg0, B arg1, C arg2)
-//    {
-//        try
-//        {
-//            translator.translateTo(get(sequence), sequence, arg0, arg1, arg2);
-//        }
-//        finally
-//        {
-//            sequencer.publish(sequence);
-//        }
-//    }
-
-
-//    private void translateAndPublish(EventTranslatorVararg<E> translator, long sequence, Object... args)
-//    {
-//        try
-//        {
-//            translator.translateTo(get(sequence), sequence, args);
-//        }
-//        finally
-//        {
-//            sequencer.publish(sequence);
-//        }
-//    }
-
-
-//    private void translateAndPublishBatch(
-//            final EventTranslator<E>[] translators, int batchStartsAt,
-//            final int batchSize, final long finalSequence)
-//    {
-//        final long initialSequence = finalSequence - (batchSize - 1);
-//        try
-//        {
-//            long sequence = initialSequence;
-//            final int batchEndsAt = batchStartsAt + batchSize;
-//            for (int i = batchStartsAt; i < batchEndsAt; i++)
-//            {
-//                final EventTranslator<E> translator = translators[i];
-//                translator.translateTo(get(sequence), sequence++);
-//            }
-//        }
-//        finally
-//        {
-//            sequencer.publish(initialSequence, finalSequence);
-//        }
-//    }
-
-
-//    private <A> void translateAndPublishBatch(
-//            final EventTranslatorOneArg<E, A> translator, final A[] arg0,
-//            int batchStartsAt, final int batchSize, final long finalSequence)
-//    {
-//        final long initialSequence = finalSequence - (batchSize - 1);
-//        try
-//        {
-//            long sequence = initialSequence;
-//            final int batchEndsAt = batchStartsAt + batchSize;
-//            for (int i = batchStartsAt; i < batchEndsAt; i++)
-//            {
-//                translator.translateTo(get(sequence), sequence++, arg0[i]);
-//            }
-//        }
-//        finally
-//        {
-//            sequencer.publish(initialSequence, finalSequence);
-//        }
-//    }
-
-
-//    private <A, B> void translateAndPublishBatch(
-//            final EventTranslatorTwoArg<E, A, B> translator, final A[] arg0,
-//            final B[] arg1, int batchStartsAt, int batchSize,
-//            final long finalSequence)
-//    {
-//        final long initialSequence = finalSequence - (batchSize - 1);
-//        try
-//        {
-//            long sequence = initialSequence;
-//            final int batchEndsAt = batchStartsAt + batchSize;
-//            for (int i = batchStartsAt; i < batchEndsAt; i++)
-//            {
-//                translator.translateTo(get(sequence), sequence++, arg0[i], arg1[i]);
-//            }
-//        }
-//        finally
-//        {
-//            sequencer.publish(initialSequence, finalSequence);
-//        }
-//    }
-
-
-//    private <A, B, C> void translateAndPublishBatch(
-//            final EventTranslatorThreeArg<E, A, B, C> translator,
-//            final A[] arg0, final B[] arg1, final C[] arg2, int batchStartsAt,
-//            final int batchSize, final long finalSequence)
-//    {
-//        final long initialSequence = finalSequence - (batchSize - 1);
-//        try
-//        {
-//            long sequence = initialSequence;
-//            final int batchEndsAt = batchStartsAt + batchSize;
-//            for (int i = batchStartsAt; i < batchEndsAt; i++)
-//            {
-//                translator.translateTo(get(sequence), sequence++, arg0[i], arg1[i], arg2[i]);
-//            }
-//        }
-//        finally
-//        {
-//            sequencer.publish(initialSequence, finalSequence);
-//        }
-//    }
-
-
-//    private void translateAndPublishBatch(
-//            final EventTranslatorVararg<E> translator, int batchStartsAt,
-//            final int batchSize, final long finalSequence, final Object[][] args)
-//    {
-//        final long initialSequence = finalSequence - (batchSize - 1);
-//        try
-//        {
-//            long sequence = initialSequence;
-//            final int batchEndsAt = batchStartsAt + batchSize;
-//            for (int i = batchStartsAt; i < batchEndsAt; i++)
-//            {
-//                translator.translateTo(get(sequence), sequence++, args[i]);
-//            }
-//        }
-//        finally
-//        {
-//            sequencer.publish(initialSequence, finalSequence);
-//        }
-//    }
+    private <A, B> void translateAndPublish(EventTranslatorTwoArg<E, A, B> translator, long sequence, A arg0, B arg1) {
+        try {
+            translator.translateTo(get(sequence), sequence, arg0, arg1);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private <A, B, C> void translateAndPublish(
+            EventTranslatorThreeArg<E, A, B, C> translator, long sequence, A arg0, B arg1, C arg2) {
+        try {
+            translator.translateTo(get(sequence), sequence, arg0, arg1, arg2);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private void translateAndPublishVararg(EventTranslatorVararg<E> translator, long sequence, Object... args) {
+        try {
+            translator.translateTo(get(sequence), sequence, args);
+        } finally {
+            sequencer.publish(sequence);
+        }
+    }
+
+    private void translateAndPublishBatch(
+            final EventTranslator<E>[] translators, int batchStartsAt, final int batchSize, final long finalSequence) {
+        //算出这一批的第一个序号
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                final EventTranslator<E> translator = translators[i];
+                translator.translateTo(get(sequence), sequence++);
+            }
+        } finally {
+            //整批数据只发布一次，也就只唤醒一次消费者
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private <A> void translateAndPublishBatch(
+            final EventTranslatorOneArg<E, A> translator, final A[] arg0,
+            int batchStartsAt, final int batchSize, final long finalSequence) {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                translator.translateTo(get(sequence), sequence++, arg0[i]);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private <A, B> void translateAndPublishBatch(
+            final EventTranslatorTwoArg<E, A, B> translator, final A[] arg0, final B[] arg1,
+            int batchStartsAt, int batchSize, final long finalSequence) {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                translator.translateTo(get(sequence), sequence++, arg0[i], arg1[i]);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private <A, B, C> void translateAndPublishBatch(
+            final EventTranslatorThreeArg<E, A, B, C> translator, final A[] arg0, final B[] arg1, final C[] arg2,
+            int batchStartsAt, final int batchSize, final long finalSequence) {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                translator.translateTo(get(sequence), sequence++, arg0[i], arg1[i], arg2[i]);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
+
+    private void translateAndPublishBatch(
+            final EventTranslatorVararg<E> translator, int batchStartsAt,
+            final int batchSize, final long finalSequence, final Object[][] args) {
+        final long initialSequence = finalSequence - (batchSize - 1);
+        try {
+            long sequence = initialSequence;
+            final int batchEndsAt = batchStartsAt + batchSize;
+            for (int i = batchStartsAt; i < batchEndsAt; i++) {
+                translator.translateTo(get(sequence), sequence++, args[i]);
+            }
+        } finally {
+            sequencer.publish(initialSequence, finalSequence);
+        }
+    }
 
     @Override
     public String toString() {
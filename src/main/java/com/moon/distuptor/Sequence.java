@@ -1,7 +1,7 @@
 package com.moon.distuptor;
 
-import com.moon.distuptor.util.Util;
-import sun.misc.Unsafe;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
  * @author Chanmoey
@@ -25,15 +25,12 @@ class RhsPadding extends Value {   //在子类填充空字节
 public class Sequence extends RhsPadding {
 
     static final long INITIAL_VALUE = -1L;
-    //Unsafe对象
-    private static final Unsafe UNSAFE;
-    //value在对象中的内存偏移量
-    private static final long VALUE_OFFSET;
+    //操作value的VarHandle，可以按需要选择plain/opaque/acquire/release/volatile不同强度的内存访问方式
+    private static final VarHandle VALUE_FIELD;
 
     static {
-        UNSAFE = Util.getUnsafe();
-        try {   //该方法的作用在环形数组类也见过了，就是得到value在对象中的内存偏移量，这样就能直接根据内存偏移量，让Unsafe对象直接操纵这个变量了
-            VALUE_OFFSET = UNSAFE.objectFieldOffset(Value.class.getDeclaredField("value"));
+        try {   //value定义在父类Value中，同一个包下可以直接拿到它的VarHandle
+            VALUE_FIELD = MethodHandles.lookup().findVarHandle(Value.class, "value", long.class);
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
@@ -46,25 +43,45 @@ public class Sequence extends RhsPadding {
 
     //设置value的初始值，也就是-1L
     public Sequence(final long initialValue) {
-        UNSAFE.putOrderedLong(this, VALUE_OFFSET, initialValue);
+        VALUE_FIELD.setRelease(this, initialValue);
     }
 
-    //返回value
+    //返回value，volatile读
     public long get() {
         return value;
     }
 
+    //acquire读，保证之后的读写不会被重排到它前面，配合setRelease使用，读取其他线程发布的进度用这个就够了
+    public long getAcquire() {
+        return (long) VALUE_FIELD.getAcquire(this);
+    }
+
+    //opaque读，只保证最终能读到最新的值，不提供任何顺序保证，适合监控或者读取自己写的值
+    public long getOpaque() {
+        return (long) VALUE_FIELD.getOpaque(this);
+    }
+
     //设置value的值
-    public void set(final long value) {   // putOrderedLong方法并不会保证内存的立即可见性，只会保证不被指令重拍，也就是说，更新了value，该值可能并不会立刻被其他线程可见
-        UNSAFE.putOrderedLong(this, VALUE_OFFSET, value);
+    public void set(final long value) {   // release写并不会保证内存的立即可见性，只会保证之前的读写不被重排到它后面，也就是说，更新了value，该值可能并不会立刻被其他线程可见
+        VALUE_FIELD.setRelease(this, value);
+    }
+
+    //和set一样是release写，名字上更明确
+    public void setRelease(final long value) {
+        VALUE_FIELD.setRelease(this, value);
+    }
+
+    //opaque写，不提供顺序保证
+    public void setOpaque(final long value) {
+        VALUE_FIELD.setOpaque(this, value);
     }
 
     public void setVolatile(final long value) {
-        UNSAFE.putLongVolatile(this, VALUE_OFFSET, value);
+        VALUE_FIELD.setVolatile(this, value);
     }
 
     public boolean compareAndSet(final long expectedValue, final long newValue) {
-        return UNSAFE.compareAndSwapLong(this, VALUE_OFFSET, expectedValue, newValue);
+        return VALUE_FIELD.compareAndSet(this, expectedValue, newValue);
     }
 
     public long incrementAndGet() {
@@ -72,16 +89,7 @@ public class Sequence extends RhsPadding {
     }
 
     public long addAndGet(final long increment) {
-        long currentValue;
-        long newValue;
-
-        do {
-            currentValue = get();
-            newValue = currentValue + increment;
-        }
-        while (!compareAndSet(currentValue, newValue));
-
-        return newValue;
+        return (long) VALUE_FIELD.getAndAdd(this, increment) + increment;
     }
 
     @Override
@@ -17,4 +17,9 @@ public interface SequenceBarrier {
     void clearAlert();
 
     void checkAlert() throws AlertException;
+
+    /**
+     * 消费者推进了自己的消费进度之后调用，用来唤醒等待中的生产者
+     */
+    void signalProducers(Sequence consumerSequence);
 }
@@ -1,6 +1,6 @@
 package com.moon.distuptor;
 
-import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.lang.invoke.VarHandle;
 
 import static java.util.Arrays.copyOf;
 
@@ -12,7 +12,7 @@ public class SequenceGroups {
 
     static <T> void addSequences(
             final T holder,
-            final AtomicReferenceFieldUpdater<T, Sequence[]> updater,
+            final VarHandle updater,
             final Cursored cursor,
             final Sequence... sequencesToAdd)
     {
@@ -22,7 +22,7 @@ public class SequenceGroups {
 
         do
         {
-            currentSequences = updater.get(holder);
+            currentSequences = (Sequence[]) updater.getVolatile(holder);
             updatedSequences = copyOf(currentSequences, currentSequences.length + sequencesToAdd.length);
             cursorSequence = cursor.getCursor();
 
@@ -45,7 +45,7 @@ public class SequenceGroups {
 
     static <T> boolean removeSequence(
             final T holder,
-            final AtomicReferenceFieldUpdater<T, Sequence[]> sequenceUpdater,
+            final VarHandle sequenceUpdater,
             final Sequence sequence)
     {
         int numToRemove;
@@ -54,7 +54,7 @@ public class SequenceGroups {
 
         do
         {
-            oldSequences = sequenceUpdater.get(holder);
+            oldSequences = (Sequence[]) sequenceUpdater.getVolatile(holder);
 
             numToRemove = countMatching(oldSequences, sequence);
 
@@ -6,6 +6,11 @@ package com.moon.distuptor;
  */
 public interface Sequenced {
 
+    /**
+     * tryNextSequence在容量不足时返回的值，不会和任何真实的序号冲突
+     */
+    long INSUFFICIENT_CAPACITY = Long.MIN_VALUE;
+
     int getBufferSize();
 
     boolean hasAvailableCapacity(int requiredCapacity);
@@ -20,6 +25,11 @@ public interface Sequenced {
 
     long tryNext(int n) throws InsufficientCapacityException;
 
+    /**
+     * 和tryNext一样不会阻塞，但容量不足时不抛异常，而是返回INSUFFICIENT_CAPACITY，适合把申请失败当作常态的场景
+     */
+    long tryNextSequence(int n);
+
     void publish(long sequence);
 
     void publish(long lo, long hi);
@@ -35,11 +35,26 @@ public interface Sequencer extends Cursored, Sequenced{
      */
     SequenceBarrier newBarrier(Sequence... sequencesToTrack);
 
+    /**
+     * 创建一个拉模式的消费者
+     */
+    <T> EventPoller<T> newPoller(DataProvider<T> provider, Sequence... gatingSequences);
+
     /**
      * 得到所有消费者序号和当生产者序号中，最小的那个序号
      */
     long getMinimumSequence();
 
+    /**
+     * 给生产者判断容量用的最慢消费者进度，如果能很快确认它不小于wrapPoint，返回的可能只是一个足够用的下界
+     */
+    long getMinimumSequence(long wrapPoint);
+
+    /**
+     * 消费者推进了消费进度之后调用，更新缓存的最小消费进度，并唤醒因为环形数组满了而等待的生产者
+     */
+    void signalProducers(Sequence consumerSequence);
+
     /**
      * 得到已经发布的最大生产者序号，且保证最大生产者序号之前的序号都是连续的
      */
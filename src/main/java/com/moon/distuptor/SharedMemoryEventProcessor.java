@@ -0,0 +1,231 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SharedMemoryRingBuffer的消费处理器，处理流程和BatchEventProcessor一样
+ * 消费进度保存在共享文件中属于自己的消费者位置上，生产者进程读取它来判断环形数组是否已满
+ * 处理器启动时上线，从当前的cursor开始消费；停止时下线，之后生产者不再等待它
+ * 生产者在另一个进程中，发布数据时无法唤醒这里挂起的线程，所以只能使用轮询cursor的等待策略
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class SharedMemoryEventProcessor implements EventProcessor {
+
+    private static final int IDLE = 0;
+    private static final int HALTED = IDLE + 1;
+    private static final int RUNNING = HALTED + 1;
+
+    private final AtomicInteger running = new AtomicInteger(IDLE);
+
+    private ExceptionHandler<? super RecordView> exceptionHandler = new FatalExceptionHandler();
+
+    private final SharedMemoryRingBuffer ringBuffer;
+
+    private final int consumerIndex;
+
+    private final Sequence sequence;
+
+    private final SharedMemorySequenceBarrier sequenceBarrier;
+
+    private final EventHandler<? super RecordView> eventHandler;
+
+    private final TimeoutHandler timeoutHandler;
+
+    private final BatchStartAware batchStartAware;
+
+    SharedMemoryEventProcessor(
+            final SharedMemoryRingBuffer ringBuffer,
+            final int consumerIndex,
+            final WaitStrategy waitStrategy,
+            final EventHandler<? super RecordView> eventHandler) {
+        this.ringBuffer = ringBuffer;
+        this.consumerIndex = consumerIndex;
+        this.sequence = ringBuffer.consumerSequence(consumerIndex);
+        this.sequenceBarrier = new SharedMemorySequenceBarrier(waitStrategy, ringBuffer.cursorSequence());
+        this.eventHandler = eventHandler;
+        batchStartAware =
+                (eventHandler instanceof BatchStartAware) ? (BatchStartAware) eventHandler : null;
+        timeoutHandler =
+                (eventHandler instanceof TimeoutHandler) ? (TimeoutHandler) eventHandler : null;
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    public int getConsumerIndex() {
+        return consumerIndex;
+    }
+
+    @Override
+    public void halt() {
+        running.set(HALTED);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get() != IDLE;
+    }
+
+    public void setExceptionHandler(final ExceptionHandler<? super RecordView> exceptionHandler) {
+        if (null == exceptionHandler) {
+            throw new NullPointerException();
+        }
+
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    @Override
+    public void run() {
+        if (running.compareAndSet(IDLE, RUNNING)) {
+            sequenceBarrier.clearAlert();
+            try {
+                ringBuffer.attachConsumer(consumerIndex);
+            } catch (final RuntimeException e) {
+                //位置被别的消费者占用了，回到空闲状态，这个位置不属于自己，不能下线
+                running.set(IDLE);
+                throw e;
+            }
+            notifyStart();
+            try {
+                if (running.get() == RUNNING) {
+                    processEvents();
+                }
+            } finally {
+                notifyShutdown();
+                //下线之后生产者就不再受这个消费者的限制了
+                ringBuffer.detachConsumer(consumerIndex);
+                running.set(IDLE);
+            }
+        } else {
+            if (running.get() == RUNNING) {
+                throw new IllegalStateException("Thread is already running");
+            } else {
+                notifyStart();
+                notifyShutdown();
+            }
+        }
+    }
+
+    private void processEvents() {
+        RecordView event = null;
+        long nextSequence = sequence.get() + 1L;
+        while (true) {
+            try {
+                final long availableSequence = sequenceBarrier.waitFor(nextSequence);
+                if (batchStartAware != null) {
+                    batchStartAware.onBatchStart(availableSequence - nextSequence + 1);
+                }
+
+                while (nextSequence <= availableSequence) {
+                    event = ringBuffer.get(nextSequence);
+                    eventHandler.onEvent(event, nextSequence, nextSequence == availableSequence);
+                    nextSequence++;
+                }
+
+                //消费进度写回共享文件，生产者进程轮询时就能看到环形数组腾出了位置
+                sequence.set(nextSequence - 1);
+            } catch (final TimeoutException e) {
+                notifyTimeout(sequence.get());
+            } catch (final AlertException ex) {
+                if (running.get() != RUNNING) {
+                    break;
+                }
+            } catch (final Throwable ex) {
+                exceptionHandler.handleEventException(ex, nextSequence, event);
+                sequence.set(nextSequence);
+                nextSequence++;
+            }
+        }
+    }
+
+    private void notifyTimeout(final long availableSequence) {
+        try {
+            if (timeoutHandler != null) {
+                timeoutHandler.onTimeout(availableSequence);
+            }
+        } catch (Throwable e) {
+            exceptionHandler.handleEventException(e, availableSequence, null);
+        }
+    }
+
+    private void notifyStart() {
+        if (eventHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) eventHandler).onStart();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnStartException(ex);
+            }
+        }
+    }
+
+    private void notifyShutdown() {
+        if (eventHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) eventHandler).onShutdown();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnShutdownException(ex);
+            }
+        }
+    }
+
+    /**
+     * 只依赖生产者cursor的序号屏障，单生产者发布后cursor之前的槽位都是可用的，不需要再检查可用标志
+     * 生产者在另一个进程中，所以signalProducers什么也不做
+     */
+    private static final class SharedMemorySequenceBarrier implements SequenceBarrier {
+
+        private final WaitStrategy waitStrategy;
+
+        private final Sequence cursorSequence;
+
+        private volatile boolean alerted = false;
+
+        SharedMemorySequenceBarrier(final WaitStrategy waitStrategy, final Sequence cursorSequence) {
+            this.waitStrategy = waitStrategy;
+            this.cursorSequence = cursorSequence;
+        }
+
+        @Override
+        public long waitFor(final long sequence) throws AlertException, InterruptedException, TimeoutException {
+            checkAlert();
+            return waitStrategy.waitFor(sequence, cursorSequence, cursorSequence, this);
+        }
+
+        @Override
+        public long getCursor() {
+            return cursorSequence.get();
+        }
+
+        @Override
+        public boolean isAlerted() {
+            return alerted;
+        }
+
+        @Override
+        public void alert() {
+            alerted = true;
+            waitStrategy.signalAllWhenBlocking();
+        }
+
+        @Override
+        public void clearAlert() {
+            alerted = false;
+        }
+
+        @Override
+        public void checkAlert() throws AlertException {
+            if (alerted) {
+                throw AlertException.INSTANCE;
+            }
+        }
+
+        @Override
+        public void signalProducers(final Sequence consumerSequence) {
+        }
+    }
+}
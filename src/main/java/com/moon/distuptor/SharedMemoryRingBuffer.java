@@ -0,0 +1,335 @@
+package com.moon.distuptor;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 同一台机器上多个JVM进程之间共享的环形数组，生产者的cursor、消费者的进度和所有定长槽位都放在同一个内存映射文件中
+ * 文件一般放在/dev/shm下，这样它只存在于内存里，进程之间传递数据只需要写一次槽位，不需要序列化和系统调用
+ * 只支持一个生产者进程，申请和发布的语义和SingleProducerSequencer一样，只有create得到的实例能发布，open得到的实例只能消费；
+ * 消费者进程通过newEventProcessor按编号占用一个消费者位置，处理方式和BatchEventProcessor一样，按批次回调EventHandler<RecordView>
+ * 跨进程时无法唤醒挂起的线程，所以消费者只能使用BusySpinWaitStrategy、YieldingWaitStrategy、SleepingWaitStrategy这类轮询的等待策略
+ *
+ * 文件布局：
+ * [0, 128)       文件头：魔数、槽位大小、槽位个数、最大消费者个数
+ * [128, 256)     生产者的cursor，独占一个缓存行
+ * [256, ...)     每个消费者占128字节，前8字节是消费进度，后8字节是状态：空闲、已占用、在线
+ * [dataOffset, ) 槽位数据，从4096字节对齐的位置开始
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class SharedMemoryRingBuffer implements Cursored, DataProvider<RecordView> {
+
+    private static final long MAGIC = 0x4D4F4F4E52494E47L;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int SLOT_SIZE_OFFSET = 8;
+    private static final int SLOT_COUNT_OFFSET = 12;
+    private static final int MAX_CONSUMERS_OFFSET = 16;
+
+    private static final int LINE_BYTES = 128;
+    private static final int CURSOR_OFFSET = LINE_BYTES;
+    private static final int CONSUMERS_OFFSET = 2 * LINE_BYTES;
+    private static final int ACTIVE_OFFSET = 8;
+
+    //消费者位置的状态，只有在线的消费者会挡住生产者
+    private static final long CONSUMER_FREE = 0L;
+    private static final long CONSUMER_CLAIMED = 1L;
+    private static final long CONSUMER_ACTIVE = 2L;
+
+    private static final int PAGE_BYTES = 4096;
+
+    //生产者等待消费者时挂起的最长时间
+    private static final long MAX_PARK_NANOS = 100_000L;
+
+    private final MappedByteBuffer buffer;
+
+    private final int slotSize;
+
+    private final int bufferSize;
+
+    private final int indexMask;
+
+    private final int maxConsumers;
+
+    private final int dataOffset;
+
+    private final MappedSequence cursor;
+
+    private final MappedSequence[] consumerSequences;
+
+    private final MappedSequence[] consumerActive;
+
+    private final ThreadLocal<RecordView> views;
+
+    //是否是create创建的生产者实例
+    private final boolean producer;
+
+    //下面两个字段只有生产者进程使用，和SingleProducerSequencer中的含义一样
+    private long nextValue = Sequencer.INITIAL_CURSOR_VALUE;
+
+    private long cachedValue = Sequencer.INITIAL_CURSOR_VALUE;
+
+    private SharedMemoryRingBuffer(final MappedByteBuffer buffer, final boolean producer) {
+        this.buffer = buffer;
+        this.producer = producer;
+        this.slotSize = buffer.getInt(SLOT_SIZE_OFFSET);
+        this.bufferSize = buffer.getInt(SLOT_COUNT_OFFSET);
+        this.maxConsumers = buffer.getInt(MAX_CONSUMERS_OFFSET);
+        this.indexMask = bufferSize - 1;
+        this.dataOffset = dataOffset(maxConsumers);
+
+        this.cursor = new MappedSequence(buffer, CURSOR_OFFSET);
+        this.consumerSequences = new MappedSequence[maxConsumers];
+        this.consumerActive = new MappedSequence[maxConsumers];
+        for (int i = 0; i < maxConsumers; i++) {
+            consumerSequences[i] = new MappedSequence(buffer, CONSUMERS_OFFSET + i * LINE_BYTES);
+            consumerActive[i] = new MappedSequence(buffer, CONSUMERS_OFFSET + i * LINE_BYTES + ACTIVE_OFFSET);
+        }
+        this.views = ThreadLocal.withInitial(() -> new RecordView(slotSize));
+    }
+
+    /**
+     * 生产者进程调用，在/dev/shm下创建一个新的共享环形数组，已经存在的同名文件会被删除后重新创建
+     */
+    public static SharedMemoryRingBuffer create(final String name, final int slotSize, final int bufferSize, final int maxConsumers) throws IOException {
+        return create(Path.of("/dev/shm", name), slotSize, bufferSize, maxConsumers);
+    }
+
+    public static SharedMemoryRingBuffer create(final Path file, final int slotSize, final int bufferSize, final int maxConsumers) throws IOException {
+        if (slotSize < 1) {
+            throw new IllegalArgumentException("slotSize must be > 0");
+        }
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2");
+        }
+        if (maxConsumers < 1) {
+            throw new IllegalArgumentException("maxConsumers must be > 0");
+        }
+        final long fileSize = dataOffset(maxConsumers) + (long) slotSize * bufferSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("slotSize * bufferSize is too large");
+        }
+
+        // 不能截断旧文件：其他进程可能还映射着它，截断之后它们再访问映射就会收到SIGBUS
+        // 删除之后重新创建，旧的映射仍然指向旧文件，直到那些进程自己关闭
+        Files.deleteIfExists(file);
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        }
+        buffer.order(ByteOrder.nativeOrder());
+        buffer.putInt(SLOT_SIZE_OFFSET, slotSize);
+        buffer.putInt(SLOT_COUNT_OFFSET, bufferSize);
+        buffer.putInt(MAX_CONSUMERS_OFFSET, maxConsumers);
+
+        final SharedMemoryRingBuffer ringBuffer = new SharedMemoryRingBuffer(buffer, true);
+        ringBuffer.cursor.set(Sequencer.INITIAL_CURSOR_VALUE);
+        for (int i = 0; i < maxConsumers; i++) {
+            ringBuffer.consumerSequences[i].set(Sequencer.INITIAL_CURSOR_VALUE);
+            ringBuffer.consumerActive[i].set(CONSUMER_FREE);
+        }
+        // 魔数最后写，消费者进程看到魔数时，文件的其他部分已经初始化好了
+        new MappedSequence(buffer, MAGIC_OFFSET).set(MAGIC);
+        return ringBuffer;
+    }
+
+    /**
+     * 消费者进程调用，打开生产者已经创建好的共享环形数组，得到的实例只能消费，不能申请和发布序号
+     */
+    public static SharedMemoryRingBuffer open(final String name) throws IOException {
+        return open(Path.of("/dev/shm", name));
+    }
+
+    public static SharedMemoryRingBuffer open(final Path file) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        buffer.order(ByteOrder.nativeOrder());
+        if (buffer.capacity() < CONSUMERS_OFFSET || new MappedSequence(buffer, MAGIC_OFFSET).get() != MAGIC) {
+            throw new IllegalStateException("Not an initialized shared ring buffer: " + file);
+        }
+        return new SharedMemoryRingBuffer(buffer, false);
+    }
+
+    @Override
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getSlotSize() {
+        return slotSize;
+    }
+
+    public int getMaxConsumers() {
+        return maxConsumers;
+    }
+
+    /**
+     * 返回序号对应槽位的视图，这个视图属于当前线程，在当前线程下一次调用get之前有效
+     */
+    @Override
+    public RecordView get(final long sequence) {
+        return views.get().wrap(buffer, dataOffset + ((int) sequence & indexMask) * slotSize, sequence);
+    }
+
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * 生产者申请n个序号，环形数组满了就等待在线的消费者
+     */
+    public long next(final int n) {
+        checkProducer();
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException("n must be > 0 and <= bufferSize");
+        }
+
+        final long nextSequence = nextValue + n;
+        final long wrapPoint = nextSequence - bufferSize;
+
+        if (wrapPoint > cachedValue || cachedValue > nextValue) {
+            // 和SingleProducerSequencer一样，先让消费者能看到之前发布的cursor
+            cursor.setVolatile(nextValue);
+
+            long minSequence;
+            long parkNanos = 1_000L;
+            int spins = 0;
+            while (wrapPoint > (minSequence = minimumConsumerSequence(nextValue))) {
+                if (++spins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(parkNanos);
+                    parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+                }
+            }
+            cachedValue = minSequence;
+        }
+
+        nextValue = nextSequence;
+        return nextSequence;
+    }
+
+    public void publish(final long sequence) {
+        checkProducer();
+        cursor.set(sequence);
+    }
+
+    public void publish(final long lo, final long hi) {
+        publish(hi);
+    }
+
+    public void publishEvent(final EventTranslator<RecordView> translator) {
+        final long sequence = next();
+        try {
+            translator.translateTo(get(sequence), sequence);
+        } finally {
+            publish(sequence);
+        }
+    }
+
+    public <A> void publishEvent(final EventTranslatorOneArg<RecordView, A> translator, final A arg0) {
+        final long sequence = next();
+        try {
+            translator.translateTo(get(sequence), sequence, arg0);
+        } finally {
+            publish(sequence);
+        }
+    }
+
+    /**
+     * 占用第consumerIndex个消费者位置，创建它的事件处理器，处理器启动时上线，停止时下线
+     * 生产者不会调用消费者的signalAllWhenBlocking，挂起等待唤醒的策略会一直挂起，所以直接拒绝
+     */
+    public SharedMemoryEventProcessor newEventProcessor(
+            final int consumerIndex, final WaitStrategy waitStrategy, final EventHandler<? super RecordView> handler) {
+        if (consumerIndex < 0 || consumerIndex >= maxConsumers) {
+            throw new IllegalArgumentException("consumerIndex must be in [0, " + maxConsumers + ")");
+        }
+        if (isSignalled(waitStrategy)) {
+            throw new IllegalArgumentException(waitStrategy.getClass().getSimpleName()
+                    + " relies on producer signals, which cannot cross processes; use a polling wait strategy");
+        }
+        return new SharedMemoryEventProcessor(this, consumerIndex, waitStrategy, handler);
+    }
+
+    /**
+     * 强制下线某个消费者，比如它所在的进程崩溃了，否则生产者会一直等待它的进度
+     */
+    public void detachConsumer(final int consumerIndex) {
+        consumerActive[consumerIndex].set(CONSUMER_FREE);
+    }
+
+    Sequence cursorSequence() {
+        return cursor;
+    }
+
+    Sequence consumerSequence(final int consumerIndex) {
+        return consumerSequences[consumerIndex];
+    }
+
+    /**
+     * 消费者上线，从当前的cursor开始消费
+     * 先用CAS占住位置，再写进度，最后才变成在线，生产者只会把在线的消费者当作依赖，看到在线时一定也能看到写好的进度
+     * 变成在线之前生产者没有等待这个消费者，可能已经按更新的cursor缓存了最慢进度，
+     * 所以在线之后再读一次cursor作为起点：生产者的cursor写入和对在线标志的读取都是volatile的，
+     * 它要么已经看到这个消费者在线，要么之前缓存的最慢进度不会超过这里读到的cursor，不会覆盖到要读的槽位
+     */
+    void attachConsumer(final int consumerIndex) {
+        if (!consumerActive[consumerIndex].compareAndSet(CONSUMER_FREE, CONSUMER_CLAIMED)) {
+            throw new IllegalStateException("Consumer " + consumerIndex + " is already attached");
+        }
+        final Sequence consumerSequence = consumerSequences[consumerIndex];
+        consumerSequence.setVolatile(cursor.get());
+        consumerActive[consumerIndex].setVolatile(CONSUMER_ACTIVE);
+        consumerSequence.setVolatile(cursor.get());
+    }
+
+    /**
+     * 是否是依靠生产者唤醒的等待策略，PhasedBackoffWaitStrategy最后也会退化成它的fallback
+     */
+    private static boolean isSignalled(final WaitStrategy waitStrategy) {
+        if (waitStrategy instanceof PhasedBackoffWaitStrategy) {
+            return isSignalled(((PhasedBackoffWaitStrategy) waitStrategy).getFallbackStrategy());
+        }
+        return waitStrategy instanceof BlockingWaitStrategy
+                || waitStrategy instanceof LiteBlockingWaitStrategy
+                || waitStrategy instanceof TimeoutBlockingWaitStrategy;
+    }
+
+    private long minimumConsumerSequence(final long minimum) {
+        long min = minimum;
+        for (int i = 0; i < maxConsumers; i++) {
+            // 和attachConsumer配合，这里要用volatile读，不能排到前面写cursor之前
+            if (consumerActive[i].get() == CONSUMER_ACTIVE) {
+                min = Math.min(min, consumerSequences[i].getAcquire());
+            }
+        }
+        return min;
+    }
+
+    private void checkProducer() {
+        if (!producer) {
+            throw new IllegalStateException("Only the instance returned by create can publish");
+        }
+    }
+
+    private static int dataOffset(final int maxConsumers) {
+        final int headerBytes = CONSUMERS_OFFSET + maxConsumers * LINE_BYTES;
+        return (headerBytes + PAGE_BYTES - 1) / PAGE_BYTES * PAGE_BYTES;
+    }
+}
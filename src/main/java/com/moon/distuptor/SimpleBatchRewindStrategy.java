@@ -0,0 +1,15 @@
+package com.moon.distuptor;
+
+/**
+ * 总是立即重新处理本批次，直到成功为止
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class SimpleBatchRewindStrategy implements BatchRewindStrategy {
+
+    @Override
+    public RewindAction handleRewindException(final RewindableException e, final int attempts) {
+        return RewindAction.REWIND;
+    }
+}
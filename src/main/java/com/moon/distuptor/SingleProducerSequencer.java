@@ -3,8 +3,6 @@ package com.moon.distuptor;
 
 import com.moon.distuptor.util.Util;
 
-import java.util.concurrent.locks.LockSupport;
-
 /**
  * @author Chanmoey
  * Create at 2024/3/15
@@ -12,14 +10,14 @@ import java.util.concurrent.locks.LockSupport;
 abstract class SingleProducerSequencerPad extends AbstractSequencer {
     protected long p1, p2, p3, p4, p5, p6, p7;
 
-    SingleProducerSequencerPad(int bufferSize, WaitStrategy waitStrategy) {
-        super(bufferSize, waitStrategy);
+    SingleProducerSequencerPad(int bufferSize, WaitStrategy waitStrategy, ProducerWaitStrategy producerWaitStrategy) {
+        super(bufferSize, waitStrategy, producerWaitStrategy);
     }
 }
 
 abstract class SingleProducerSequencerFields extends SingleProducerSequencerPad {
-    SingleProducerSequencerFields(int bufferSize, WaitStrategy waitStrategy) {
-        super(bufferSize, waitStrategy);
+    SingleProducerSequencerFields(int bufferSize, WaitStrategy waitStrategy, ProducerWaitStrategy producerWaitStrategy) {
+        super(bufferSize, waitStrategy, producerWaitStrategy);
     }
 
     long nextValue = Sequence.INITIAL_VALUE;
@@ -33,7 +31,11 @@ abstract class SingleProducerSequencerFields extends SingleProducerSequencerPad
 public final class SingleProducerSequencer extends SingleProducerSequencerFields {
 
     public SingleProducerSequencer(int bufferSize, WaitStrategy waitStrategy) {
-        super(bufferSize, waitStrategy);
+        this(bufferSize, waitStrategy, new BackoffProducerWaitStrategy());
+    }
+
+    public SingleProducerSequencer(int bufferSize, WaitStrategy waitStrategy, ProducerWaitStrategy producerWaitStrategy) {
+        super(bufferSize, waitStrategy, producerWaitStrategy);
     }
 
     @Override
@@ -54,7 +56,7 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
                 cursor.setVolatile(nextValue);
             }
             // 这里就是得到最小的消费者进度
-            long minSequence = Util.getMinimumSequence(gatingSequences, nextValue);
+            long minSequence = minimumGatingSequence(wrapPoint, nextValue);
             // 把最小的消费者进度缓存一下，因为cachedValue可能不是最新的值，因为消费者进度也不是使用Volatile方式更新的
             // 不保证立即可见性，所以，上面的判断可能是基于旧的消费者进度判断的，发现可能覆盖未被消费的数据后，立刻重新查询一下
             // 最新的当前最慢消费者进度
@@ -93,14 +95,9 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
         if (wrapPoint > cachedGatingSequence || cachedGatingSequence > nextValue) {   //这里有点不一样，如果发现快要覆盖未消费的数据了，就立刻更新一下生产者当前的进度
             // 并且保证内存可见
             cursor.setVolatile(nextValue);
-            // 定义一个记录最慢消费进度的局部变量
-            long minSequence;
             // 这里就和hasAvailableCapacity方法的逻辑不同了，注意，这里是要真正的分配序号了，如果分配不了，就要让线程等待，直到能够分配为止
-            // minSequence = Util.getMinimumSequence(gatingSequences, nextValue)得到的是最新的最慢消费者的进度
-            // 所以下面会判断，wrapPoint是不是一直大于最新的最慢消费者进度，如果大于，就不能分配，只有小于的时候，才能分配
-            while (wrapPoint > (minSequence = Util.getMinimumSequence(gatingSequences, nextValue))) {
-                LockSupport.parkNanos(1L);
-            }
+            // 具体怎么等待交给生产者等待策略，等待策略返回的是最新的最慢消费者的进度，它一定不小于wrapPoint
+            long minSequence = producerWaitStrategy.waitFor(wrapPoint, this);
             //把最新的最慢消费者进度的缓存更新一下
             this.cachedValue = minSequence;
         }
@@ -118,12 +115,21 @@ public final class SingleProducerSequencer extends SingleProducerSequencerFields
 
     @Override
     public long tryNext(int n) throws InsufficientCapacityException {
+        final long sequence = tryNextSequence(n);
+        if (sequence == INSUFFICIENT_CAPACITY) {
+            throw InsufficientCapacityException.INSTANCE;
+        }
+        return sequence;
+    }
+
+    @Override
+    public long tryNextSequence(int n) {
         if (n < 1) {
             throw new IllegalArgumentException("n must be > 0");
         }
         // 这里就直接判断一下，看是否可以申请这么多，这个方法的逻辑上面已经详细分析过了
         if (!hasAvailableCapacity(n, true)) {
-            throw InsufficientCapacityException.INSTANCE;
+            return INSUFFICIENT_CAPACITY;
         }
         // 走到这里，说明完全可以申请，所以直接计算出最新的可用序号，然后返回即可
 
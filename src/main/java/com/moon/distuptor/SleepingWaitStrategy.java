@@ -37,7 +37,7 @@ public class SleepingWaitStrategy implements WaitStrategy {
         long availableSequence;
 
         int counter = retries;
-        while ((availableSequence = dependentSequence.get()) < sequence) {
+        while ((availableSequence = dependentSequence.getAcquire()) < sequence) {
             counter = applyWaitMethod(barrier, counter);
         }
 
@@ -55,6 +55,7 @@ public class SleepingWaitStrategy implements WaitStrategy {
 
         if (counter > SPIN_THRESHOLD) {
             // 空转
+            Thread.onSpinWait();
             return counter - 1;
         }
         if (counter > 0) {
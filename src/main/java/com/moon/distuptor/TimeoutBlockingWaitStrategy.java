@@ -0,0 +1,73 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 带超时的阻塞等待策略，消费者挂起超过指定时间还没有等到数据，就抛出TimeoutException
+ * BatchEventProcessor捕获到这个异常后会回调TimeoutHandler，用户可以借此做一些定时的工作，比如刷新缓冲区
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class TimeoutBlockingWaitStrategy implements WaitStrategy {
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition processorNotifyCondition = lock.newCondition();
+
+    private final long timeoutInNanos;
+
+    public TimeoutBlockingWaitStrategy(final long timeout, final TimeUnit units) {
+        timeoutInNanos = units.toNanos(timeout);
+    }
+
+    @Override
+    public long waitFor(long sequence, Sequence cursorSequence, Sequence dependentSequence, SequenceBarrier barrier)
+            throws AlertException, InterruptedException, TimeoutException {
+        long nanos = timeoutInNanos;
+
+        long availableSequence;
+        if (cursorSequence.getAcquire() < sequence) {
+            lock.lock();
+            try {
+                while (cursorSequence.getAcquire() < sequence) {
+                    barrier.checkAlert();
+                    nanos = processorNotifyCondition.awaitNanos(nanos);
+                    if (nanos <= 0) {
+                        throw TimeoutException.INSTANCE;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        while ((availableSequence = dependentSequence.getAcquire()) < sequence) {
+            barrier.checkAlert();
+            Thread.onSpinWait();
+        }
+
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        lock.lock();
+        try {
+            processorNotifyCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TimeoutBlockingWaitStrategy{" +
+                "processorNotifyCondition=" + processorNotifyCondition +
+                ", timeoutInNanos=" + timeoutInNanos +
+                '}';
+    }
+}
@@ -0,0 +1,11 @@
+package com.moon.distuptor;
+
+/**
+ * 工作者池中的消费者接口，和EventHandler不同，每个事件只会被池中的某一个消费者处理
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public interface WorkHandler<T> {
+    void onEvent(T event) throws Exception;
+}
@@ -0,0 +1,146 @@
+package com.moon.distuptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 工作者池中的事件处理器，池中所有的WorkProcessor共享同一个workSequence
+ * 每个处理器通过CAS从workSequence上抢下一个序号，抢到的事件只由自己处理，这样一个事件只会被处理一次
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class WorkProcessor<T> implements EventProcessor {
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    //当前处理器的消费进度，生产者会根据它判断能否覆盖数据
+    private final Sequence sequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final RingBuffer<T> ringBuffer;
+
+    private final SequenceBarrier sequenceBarrier;
+
+    private final WorkHandler<? super T> workHandler;
+
+    private final ExceptionHandler<? super T> exceptionHandler;
+
+    //池中所有处理器共享的序号，代表已经被抢走的最大序号
+    private final Sequence workSequence;
+
+    private final TimeoutHandler timeoutHandler;
+
+    public WorkProcessor(
+            final RingBuffer<T> ringBuffer,
+            final SequenceBarrier sequenceBarrier,
+            final WorkHandler<? super T> workHandler,
+            final ExceptionHandler<? super T> exceptionHandler,
+            final Sequence workSequence) {
+        this.ringBuffer = ringBuffer;
+        this.sequenceBarrier = sequenceBarrier;
+        this.workHandler = workHandler;
+        this.exceptionHandler = exceptionHandler;
+        this.workSequence = workSequence;
+
+        timeoutHandler = (workHandler instanceof TimeoutHandler) ? (TimeoutHandler) workHandler : null;
+    }
+
+    @Override
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public void halt() {
+        running.set(false);
+        sequenceBarrier.alert();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Thread is already running");
+        }
+        sequenceBarrier.clearAlert();
+
+        notifyStart();
+
+        //上一个抢到的序号是否已经处理完了，处理完了才去抢下一个
+        boolean processedSequence = true;
+        //缓存序号屏障返回的最大可消费序号，没超过它就不需要再调用waitFor
+        long cachedAvailableSequence = Long.MIN_VALUE;
+        long nextSequence = sequence.get();
+        T event = null;
+        while (true) {
+            try {
+                if (processedSequence) {
+                    processedSequence = false;
+                    do {
+                        nextSequence = workSequence.get() + 1L;
+                        //先把自己的进度设置成抢之前的值，这样生产者就不会覆盖即将要处理的事件
+                        sequence.set(nextSequence - 1L);
+                    }
+                    while (!workSequence.compareAndSet(nextSequence - 1L, nextSequence));
+                    //自己的进度推进了，唤醒可能在等待的生产者
+                    sequenceBarrier.signalProducers(sequence);
+                }
+
+                if (cachedAvailableSequence >= nextSequence) {
+                    event = ringBuffer.get(nextSequence);
+                    workHandler.onEvent(event);
+                    processedSequence = true;
+                } else {
+                    cachedAvailableSequence = sequenceBarrier.waitFor(nextSequence);
+                }
+            } catch (final TimeoutException e) {
+                notifyTimeout(sequence.get());
+            } catch (final AlertException ex) {
+                if (!running.get()) {
+                    break;
+                }
+            } catch (final Throwable ex) {
+                //和BatchEventProcessor一样，交给异常处理器之后跳过这个事件
+                exceptionHandler.handleEventException(ex, nextSequence, event);
+                processedSequence = true;
+            }
+        }
+
+        notifyShutdown();
+
+        running.set(false);
+    }
+
+    private void notifyTimeout(final long availableSequence) {
+        try {
+            if (timeoutHandler != null) {
+                timeoutHandler.onTimeout(availableSequence);
+            }
+        } catch (Throwable e) {
+            exceptionHandler.handleEventException(e, availableSequence, null);
+        }
+    }
+
+    private void notifyStart() {
+        if (workHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) workHandler).onStart();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnStartException(ex);
+            }
+        }
+    }
+
+    private void notifyShutdown() {
+        if (workHandler instanceof LifecycleAware) {
+            try {
+                ((LifecycleAware) workHandler).onShutdown();
+            } catch (final Throwable ex) {
+                exceptionHandler.handleOnShutdownException(ex);
+            }
+        }
+    }
+}
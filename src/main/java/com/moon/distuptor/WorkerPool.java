@@ -0,0 +1,102 @@
+package com.moon.distuptor;
+
+import com.moon.distuptor.util.Util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 工作者池，池中的多个WorkProcessor竞争消费同一个环形数组中的事件，每个事件只会被其中一个处理
+ * 适合把一个计算密集的消费阶段水平扩展到多个CPU核上
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class WorkerPool<T> {
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    //池中所有处理器共享的序号
+    private final Sequence workSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final RingBuffer<T> ringBuffer;
+
+    private final WorkProcessor<?>[] workProcessors;
+
+    @SafeVarargs
+    public WorkerPool(
+            final RingBuffer<T> ringBuffer,
+            final SequenceBarrier sequenceBarrier,
+            final ExceptionHandler<? super T> exceptionHandler,
+            final WorkHandler<? super T>... workHandlers) {
+        this.ringBuffer = ringBuffer;
+        final int numWorkers = workHandlers.length;
+        workProcessors = new WorkProcessor<?>[numWorkers];
+
+        for (int i = 0; i < numWorkers; i++) {
+            workProcessors[i] = new WorkProcessor<>(
+                    ringBuffer,
+                    sequenceBarrier,
+                    workHandlers[i],
+                    exceptionHandler,
+                    workSequence);
+        }
+    }
+
+    /**
+     * 所有处理器的消费进度，再加上共享的workSequence，这些都要作为gatingSequences添加到环形数组中
+     */
+    public Sequence[] getWorkerSequences() {
+        final Sequence[] sequences = new Sequence[workProcessors.length + 1];
+        for (int i = 0, size = workProcessors.length; i < size; i++) {
+            sequences[i] = workProcessors[i].getSequence();
+        }
+        sequences[sequences.length - 1] = workSequence;
+
+        return sequences;
+    }
+
+    public RingBuffer<T> start(final Executor executor) {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("WorkerPool has already been started and cannot be restarted until halted.");
+        }
+        //从生产者当前的进度开始消费
+        final long cursor = ringBuffer.getCursor();
+        workSequence.set(cursor);
+
+        for (WorkProcessor<?> processor : workProcessors) {
+            processor.getSequence().set(cursor);
+            executor.execute(processor);
+        }
+
+        return ringBuffer;
+    }
+
+    /**
+     * 等待所有已经发布的事件都被处理完，再停止所有处理器
+     */
+    public void drainAndHalt() {
+        Sequence[] workerSequences = getWorkerSequences();
+        while (ringBuffer.getCursor() > Util.getMinimumSequence(workerSequences)) {
+            Thread.yield();
+        }
+
+        for (WorkProcessor<?> processor : workProcessors) {
+            processor.halt();
+        }
+
+        started.set(false);
+    }
+
+    public void halt() {
+        for (WorkProcessor<?> processor : workProcessors) {
+            processor.halt();
+        }
+
+        started.set(false);
+    }
+
+    public boolean isRunning() {
+        return started.get();
+    }
+}
@@ -0,0 +1,32 @@
+package com.moon.distuptor;
+
+/**
+ * 生产者先空转一会，之后每次检查失败都让出CPU
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class YieldingProducerWaitStrategy implements ProducerWaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public long waitFor(long wrapPoint, Sequencer sequencer) {
+        long minSequence;
+        int counter = SPIN_TRIES;
+        while (wrapPoint > (minSequence = sequencer.getMinimumSequence(wrapPoint))) {
+            if (counter > 0) {
+                --counter;
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return minSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+
+    }
+}
@@ -0,0 +1,46 @@
+package com.moon.distuptor;
+
+/**
+ * 先空转一定的次数，之后每次检查失败都让出CPU
+ * 在延迟和CPU占用之间做了折中，适合消费者线程数不超过CPU核数的场景
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public long waitFor(final long sequence, Sequence cursor, final Sequence dependentSequence, final SequenceBarrier barrier)
+            throws AlertException, InterruptedException {
+        long availableSequence;
+        int counter = SPIN_TRIES;
+
+        while ((availableSequence = dependentSequence.getAcquire()) < sequence) {
+            counter = applyWaitMethod(barrier, counter);
+        }
+
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+
+    }
+
+    private int applyWaitMethod(final SequenceBarrier barrier, int counter) throws AlertException {
+        barrier.checkAlert();
+
+        if (0 == counter) {
+            // 放弃CPU
+            Thread.yield();
+        } else {
+            // 空转
+            --counter;
+            Thread.onSpinWait();
+        }
+
+        return counter;
+    }
+}
@@ -26,6 +26,13 @@ public class BasicExecutor implements Executor {
         this.factory = factory;
     }
 
+    /**
+     * 每个任务都运行在一个新的虚拟线程上，线程名是namePrefix加上递增的编号
+     */
+    public static BasicExecutor ofVirtualThreads(final String namePrefix) {
+        return new BasicExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+
     @Override
     public void execute(Runnable command) {
         final Thread thread = factory.newThread(command);
@@ -50,12 +57,18 @@ public class BasicExecutor implements Executor {
         final StringBuilder sb = new StringBuilder();
         final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
         for (Thread t : threads) {
-            ThreadInfo threadInfo = threadMXBean.getThreadInfo(t.getId());
             sb.append("{");
             sb.append("name=").append(t.getName()).append(",");
-            sb.append("id=").append(t.getId()).append(",");
-            sb.append("state=").append(threadInfo.getThreadState()).append(",");
-            sb.append("lockInfo=").append(threadInfo.getLockInfo());
+            sb.append("id=").append(t.threadId()).append(",");
+            if (t.isVirtual()) {
+                //ThreadMXBean查不到虚拟线程的信息，只能直接读取线程状态
+                sb.append("virtual=true,");
+                sb.append("state=").append(t.getState());
+            } else {
+                ThreadInfo threadInfo = threadMXBean.getThreadInfo(t.threadId());
+                sb.append("state=").append(threadInfo.getThreadState()).append(",");
+                sb.append("lockInfo=").append(threadInfo.getLockInfo());
+            }
             sb.append("}");
         }
         return sb.toString();
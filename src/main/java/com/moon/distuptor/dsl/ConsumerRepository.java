@@ -4,6 +4,7 @@ import com.moon.distuptor.EventHandler;
 import com.moon.distuptor.EventProcessor;
 import com.moon.distuptor.Sequence;
 import com.moon.distuptor.SequenceBarrier;
+import com.moon.distuptor.WorkerPool;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -36,6 +37,14 @@ public class ConsumerRepository<T> implements Iterable<ConsumerInfo> {
         consumerInfos.add(consumerInfo);
     }
 
+    public void add(final WorkerPool<T> workerPool, final SequenceBarrier sequenceBarrier) {
+        final WorkerPoolInfo<T> workerPoolInfo = new WorkerPoolInfo<>(workerPool, sequenceBarrier);
+        consumerInfos.add(workerPoolInfo);
+        for (Sequence sequence : workerPool.getWorkerSequences()) {
+            eventProcessorInfoBySequence.put(sequence, workerPoolInfo);
+        }
+    }
+
     public void add(final EventProcessor processor) {
         final EventProcessorInfo<T> consumerInfo = new EventProcessorInfo<>(processor, null, null);
         eventProcessorInfoBySequence.put(processor.getSequence(), consumerInfo);
@@ -2,18 +2,29 @@ package com.moon.distuptor.dsl;
 
 
 import com.moon.distuptor.BatchEventProcessor;
+import com.moon.distuptor.BatchRewindStrategy;
 import com.moon.distuptor.EventFactory;
 import com.moon.distuptor.EventHandler;
 import com.moon.distuptor.EventProcessor;
+import com.moon.distuptor.EventTranslator;
 import com.moon.distuptor.EventTranslatorOneArg;
+import com.moon.distuptor.EventTranslatorThreeArg;
+import com.moon.distuptor.EventTranslatorTwoArg;
 import com.moon.distuptor.ExceptionHandler;
+import com.moon.distuptor.ProducerWaitStrategy;
+import com.moon.distuptor.RewindableEventHandler;
 import com.moon.distuptor.RingBuffer;
 import com.moon.distuptor.Sequence;
 import com.moon.distuptor.SequenceBarrier;
 import com.moon.distuptor.TimeoutException;
 import com.moon.distuptor.WaitStrategy;
+import com.moon.distuptor.WorkHandler;
+import com.moon.distuptor.WorkerPool;
+import com.moon.distuptor.util.ThreadAffinity;
 import com.moon.distuptor.util.Util;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +54,26 @@ public class Disruptor<T> {
 
     private ExceptionHandler<? super T> exceptionHandler = new ExceptionHandlerWrapper<>();
 
+    /**
+     * 之后创建的BatchEventProcessor一批最多处理的事件个数
+     */
+    private int maxBatchSize = Integer.MAX_VALUE;
+
+    /**
+     * 之后创建的BatchEventProcessor在批处理过程中发布消费进度的间隔
+     */
+    private int progressReleaseInterval = 0;
+
+    /**
+     * 每个消费者handler要绑定的CPU核，没有配置的handler不绑定
+     */
+    private final Map<EventHandler<?>, int[]> handlerAffinity = new IdentityHashMap<>();
+
+    /**
+     * 消费者是否运行在createWithVirtualThreads创建的虚拟线程上，这时不能设置CPU亲和性
+     */
+    private boolean virtualThreads = false;
+
     public Disruptor(final EventFactory<T> eventFactory, final int ringBufferSize, final ThreadFactory threadFactory, final ProducerType producerType, final WaitStrategy waitStrategy) {
         this(
                 //第一个参数为生产者类型，分单生产者模式和多生产者模式
@@ -55,6 +86,44 @@ public class Disruptor<T> {
                 new BasicExecutor(threadFactory));
     }
 
+    public Disruptor(final EventFactory<T> eventFactory, final int ringBufferSize, final ThreadFactory threadFactory,
+                     final ProducerType producerType, final WaitStrategy waitStrategy,
+                     final ProducerWaitStrategy producerWaitStrategy) {
+        this(
+                //多了一个生产者等待策略，决定环形数组满了之后生产者怎么等待
+                RingBuffer.create(producerType, eventFactory, ringBufferSize, waitStrategy, producerWaitStrategy),
+                new BasicExecutor(threadFactory));
+    }
+
+    /**
+     * 由调用者提供执行消费者的Executor，比如一个共享的线程池，或者Executors.newVirtualThreadPerTaskExecutor()
+     * 注意每个消费者都会一直占用一个执行它的线程，直到Disruptor被关闭，所以线程池的容量必须不小于消费者的个数
+     * 用静态方法而不是构造方法，是因为Thread::new这样的方法引用既能当ThreadFactory又能当Executor，两个构造方法会产生歧义
+     */
+    public static <T> Disruptor<T> withExecutor(final EventFactory<T> eventFactory, final int ringBufferSize, final Executor executor,
+                                                final ProducerType producerType, final WaitStrategy waitStrategy) {
+        return new Disruptor<>(RingBuffer.create(producerType, eventFactory, ringBufferSize, waitStrategy), executor);
+    }
+
+    public static <T> Disruptor<T> withExecutor(final EventFactory<T> eventFactory, final int ringBufferSize, final Executor executor,
+                                                final ProducerType producerType, final WaitStrategy waitStrategy,
+                                                final ProducerWaitStrategy producerWaitStrategy) {
+        return new Disruptor<>(RingBuffer.create(producerType, eventFactory, ringBufferSize, waitStrategy, producerWaitStrategy), executor);
+    }
+
+    /**
+     * 每个消费者运行在一个虚拟线程上，适合一个JVM中有大量低流量环形数组的场景，所有消费者共享少量的载体线程
+     * 等待策略应该选择会挂起线程的，比如BlockingWaitStrategy、LiteBlockingWaitStrategy、TimeoutBlockingWaitStrategy，
+     * 这样没有数据时虚拟线程会让出载体线程，而BusySpinWaitStrategy这种空转的策略会一直霸占载体线程
+     */
+    public static <T> Disruptor<T> createWithVirtualThreads(final EventFactory<T> eventFactory, final int ringBufferSize,
+                                                            final ProducerType producerType, final WaitStrategy waitStrategy) {
+        final Disruptor<T> disruptor = withExecutor(eventFactory, ringBufferSize, BasicExecutor.ofVirtualThreads("disruptor-"),
+                producerType, waitStrategy);
+        disruptor.virtualThreads = true;
+        return disruptor;
+    }
+
     private Disruptor(final RingBuffer<T> ringBuffer, final Executor executor) {
         this.ringBuffer = ringBuffer;
         this.executor = executor;
@@ -68,6 +137,14 @@ public class Disruptor<T> {
         return createEventProcessors(new Sequence[0], handlers);
     }
 
+    //添加支持批次重放的消费者，handler抛出RewindableException时按照batchRewindStrategy决定是否重新处理本批次
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final EventHandlerGroup<T> handleEventsWith(
+            final BatchRewindStrategy batchRewindStrategy, final RewindableEventHandler<? super T>... handlers) {
+        return createEventProcessors(new Sequence[0], handlers, batchRewindStrategy);
+    }
+
     public EventHandlerGroup<T> handleEventsWith(final EventProcessor... processors) {
         for (final EventProcessor processor : processors) {   //把EventProcessor对象添加到消费者仓库中
             consumerRepository.add(processor);
@@ -86,6 +163,45 @@ public class Disruptor<T> {
         return new EventHandlerGroup<>(this, consumerRepository, Util.getSequencesFor(processors));
     }
 
+    //创建一个工作者池，池中的多个消费者竞争消费事件，每个事件只会被其中一个消费者处理
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final EventHandlerGroup<T> handleEventsWithWorkerPool(final WorkHandler<? super T>... workHandlers) {
+        return createWorkerPool(new Sequence[0], workHandlers);
+    }
+
+    //设置之后创建的消费者一批最多处理的事件个数
+    public void setMaxBatchSize(final int maxBatchSize) {
+        checkNotStarted();
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be > 0");
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    //设置之后创建的消费者在批处理过程中发布消费进度的间隔，0表示只在一批结束时发布
+    public void setProgressReleaseInterval(final int progressReleaseInterval) {
+        checkNotStarted();
+        if (progressReleaseInterval < 0) {
+            throw new IllegalArgumentException("progressReleaseInterval must be >= 0");
+        }
+        this.progressReleaseInterval = progressReleaseInterval;
+    }
+
+    //把某个消费者的线程绑定到指定的CPU核上，在启动之前调用
+    //虚拟线程绑定的会是共享的载体线程，所以createWithVirtualThreads创建的Disruptor不允许绑定，
+    //调用者自己传入的Executor如果使用虚拟线程，ThreadAffinity会跳过绑定并打印警告
+    public void setHandlerAffinity(final EventHandler<? super T> handler, final int... cpus) {
+        checkNotStarted();
+        if (virtualThreads) {
+            throw new IllegalStateException("CPU affinity cannot be used with virtual thread consumers");
+        }
+        if (cpus.length == 0) {
+            throw new IllegalArgumentException("at least one cpu is required");
+        }
+        handlerAffinity.put(handler, cpus.clone());
+    }
+
     public void setDefaultExceptionHandler(final ExceptionHandler<? super T> exceptionHandler) {
         checkNotStarted();
         //这里就是判断一下，是否已经设置过用户定义的异常处理器了，因为用户定义的异常处理器
@@ -98,14 +214,31 @@ public class Disruptor<T> {
         ((ExceptionHandlerWrapper<T>) this.exceptionHandler).switchTo(exceptionHandler);
     }
 
+    public void publishEvent(final EventTranslator<T> eventTranslator) {
+        ringBuffer.publishEvent(eventTranslator);
+    }
+
     public <A> void publishEvent(final EventTranslatorOneArg<T, A> eventTranslator, final A arg) {
         ringBuffer.publishEvent(eventTranslator, arg);
     }
 
+    //批量发布，整批数据只申请一次序号，也只发布一次
+    public <A> void publishEvents(final EventTranslatorOneArg<T, A> eventTranslator, final A[] arg) {
+        ringBuffer.publishEvents(eventTranslator, arg);
+    }
+
+    public <A, B> void publishEvent(final EventTranslatorTwoArg<T, A, B> eventTranslator, final A arg0, final B arg1) {
+        ringBuffer.publishEvent(eventTranslator, arg0, arg1);
+    }
+
+    public <A, B, C> void publishEvent(final EventTranslatorThreeArg<T, A, B, C> eventTranslator, final A arg0, final B arg1, final C arg2) {
+        ringBuffer.publishEvent(eventTranslator, arg0, arg1, arg2);
+    }
+
     public RingBuffer<T> start() {
         checkOnlyStartedOnce();
         for (final ConsumerInfo consumerInfo : consumerRepository) {
-            consumerInfo.start(executor);
+            consumerInfo.start(executorFor(consumerInfo));
         }
 
         return ringBuffer;
@@ -184,6 +317,14 @@ public class Disruptor<T> {
     public EventHandlerGroup<T> createEventProcessors(
             final Sequence[] barrierSequences,
             final EventHandler<? super T>[] eventHandlers) {
+        return createEventProcessors(barrierSequences, eventHandlers, null);
+    }
+
+    //batchRewindStrategy不为空时，eventHandlers都是RewindableEventHandler
+    EventHandlerGroup<T> createEventProcessors(
+            final Sequence[] barrierSequences,
+            final EventHandler<? super T>[] eventHandlers,
+            final BatchRewindStrategy batchRewindStrategy) {
         //检查Disruptor是否启动过，因为要保证Disruptor只能启动一次
         //创建EventProcessor对象的动作肯定要在Disruptor启动之前，所以这里必须检查一下
         checkNotStarted();
@@ -196,12 +337,15 @@ public class Disruptor<T> {
         for (int i = 0, eventHandlersLength = eventHandlers.length; i < eventHandlersLength; i++) {
             final EventHandler<? super T> eventHandler = eventHandlers[i];
 
-            final BatchEventProcessor<T> batchEventProcessor =
-                    new BatchEventProcessor<>(ringBuffer, barrier, eventHandler);
+            final BatchEventProcessor<T> batchEventProcessor = batchRewindStrategy == null
+                    ? new BatchEventProcessor<>(ringBuffer, barrier, eventHandler)
+                    : new BatchEventProcessor<>(ringBuffer, barrier, (RewindableEventHandler<? super T>) eventHandler, batchRewindStrategy);
             //判断异常处理器是否为空
             if (exceptionHandler != null) {   //不为空则设置异常处理器
                 batchEventProcessor.setExceptionHandler(exceptionHandler);
             }
+            batchEventProcessor.setMaxBatchSize(maxBatchSize);
+            batchEventProcessor.setProgressReleaseInterval(progressReleaseInterval);
             //把创建好的batchEventProcessor对象添加到消费者仓库中
             consumerRepository.add(batchEventProcessor, eventHandler, barrier);
             //这时候每一个消费者的消费序号已经初始化好了，直接可以从batchEventProcessor对象中得到
@@ -237,6 +381,32 @@ public class Disruptor<T> {
     }
 
 
+    EventHandlerGroup<T> createWorkerPool(
+            final Sequence[] barrierSequences, final WorkHandler<? super T>[] workHandlers) {
+        //工作者池中的所有消费者共用一个序号屏障
+        final SequenceBarrier sequenceBarrier = ringBuffer.newBarrier(barrierSequences);
+        final WorkerPool<T> workerPool = new WorkerPool<>(ringBuffer, sequenceBarrier, exceptionHandler, workHandlers);
+
+        consumerRepository.add(workerPool, sequenceBarrier);
+
+        final Sequence[] workerSequences = workerPool.getWorkerSequences();
+        //工作者池的进度也要作为gatingSequences，防止生产者覆盖尚未处理的事件
+        updateGatingSequencesForNextInChain(barrierSequences, workerSequences);
+
+        return new EventHandlerGroup<>(this, consumerRepository, workerSequences);
+    }
+
+    //配置了CPU亲和性的消费者，在执行它的线程开始运行时先绑定到对应的核上
+    private Executor executorFor(final ConsumerInfo consumerInfo) {
+        if (consumerInfo instanceof EventProcessorInfo) {
+            final int[] cpus = handlerAffinity.get(((EventProcessorInfo<?>) consumerInfo).getHandler());
+            if (cpus != null) {
+                return command -> executor.execute(ThreadAffinity.pinned(command, cpus));
+            }
+        }
+        return executor;
+    }
+
     //检查程序是否启动了，如果已经启动就抛出异常
     private void checkNotStarted() {
         if (started.get()) {
@@ -1,9 +1,12 @@
 package com.moon.distuptor.dsl;
 
+import com.moon.distuptor.BatchRewindStrategy;
 import com.moon.distuptor.EventHandler;
 import com.moon.distuptor.EventProcessor;
+import com.moon.distuptor.RewindableEventHandler;
 import com.moon.distuptor.Sequence;
 import com.moon.distuptor.SequenceBarrier;
+import com.moon.distuptor.WorkHandler;
 
 import java.util.Arrays;
 
@@ -53,17 +56,23 @@ public class EventHandlerGroup<T> {
     }
 
 
+    @SafeVarargs
+    public final EventHandlerGroup<T> then(
+            final BatchRewindStrategy batchRewindStrategy, final RewindableEventHandler<? super T>... handlers) {
+        return handleEventsWith(batchRewindStrategy, handlers);
+    }
+
+
     @SafeVarargs
     public final EventHandlerGroup<T> then(final EventProcessorFactory<T>... eventProcessorFactories) {
         return handleEventsWith(eventProcessorFactories);
     }
 
 
-//    @SafeVarargs
-//    public final EventHandlerGroup<T> thenHandleEventsWithWorkerPool(final WorkHandler<? super T>... handlers)
-//    {
-//        return handleEventsWithWorkerPool(handlers);
-//    }
+    @SafeVarargs
+    public final EventHandlerGroup<T> thenHandleEventsWithWorkerPool(final WorkHandler<? super T>... handlers) {
+        return handleEventsWithWorkerPool(handlers);
+    }
 
 
     @SafeVarargs
@@ -71,17 +80,24 @@ public class EventHandlerGroup<T> {
         return disruptor.createEventProcessors(sequences, handlers);
     }
 
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final EventHandlerGroup<T> handleEventsWith(
+            final BatchRewindStrategy batchRewindStrategy, final RewindableEventHandler<? super T>... handlers) {
+        return disruptor.createEventProcessors(sequences, handlers, batchRewindStrategy);
+    }
+
     @SafeVarargs
     public final EventHandlerGroup<T> handleEventsWith(final EventProcessorFactory<T>... eventProcessorFactories) {
         return disruptor.createEventProcessors(sequences, eventProcessorFactories);
     }
 
 
-//    @SafeVarargs
-//    public final EventHandlerGroup<T> handleEventsWithWorkerPool(final WorkHandler<? super T>... handlers)
-//    {
-//        return disruptor.createWorkerPool(sequences, handlers);
-//    }
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public final EventHandlerGroup<T> handleEventsWithWorkerPool(final WorkHandler<? super T>... handlers) {
+        return disruptor.createWorkerPool(sequences, handlers);
+    }
 
 
     public SequenceBarrier asSequenceBarrier() {
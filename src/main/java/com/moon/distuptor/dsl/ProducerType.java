@@ -7,5 +7,10 @@ package com.moon.distuptor.dsl;
 public enum ProducerType {
     SINGLE,
 
-    MULTI;
+    MULTI,
+
+    /**
+     * 多生产者，通过flat-combining批量分配序号，适合生产者线程非常多、cursor上CAS竞争激烈的场景
+     */
+    MULTI_COMBINING;
 }
@@ -0,0 +1,62 @@
+package com.moon.distuptor.dsl;
+
+import com.moon.distuptor.Sequence;
+import com.moon.distuptor.SequenceBarrier;
+import com.moon.distuptor.WorkerPool;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 封装工作者池的信息
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public class WorkerPoolInfo<T> implements ConsumerInfo {
+
+    private final WorkerPool<T> workerPool;
+
+    private final SequenceBarrier sequenceBarrier;
+
+    private boolean endOfChain = true;
+
+    public WorkerPoolInfo(final WorkerPool<T> workerPool, final SequenceBarrier sequenceBarrier) {
+        this.workerPool = workerPool;
+        this.sequenceBarrier = sequenceBarrier;
+    }
+
+    @Override
+    public Sequence[] getSequences() {
+        return workerPool.getWorkerSequences();
+    }
+
+    @Override
+    public SequenceBarrier getBarrier() {
+        return sequenceBarrier;
+    }
+
+    @Override
+    public boolean isEndOfChain() {
+        return endOfChain;
+    }
+
+    @Override
+    public void start(Executor executor) {
+        workerPool.start(executor);
+    }
+
+    @Override
+    public void halt() {
+        workerPool.halt();
+    }
+
+    @Override
+    public void markAsUsedInBarrier() {
+        endOfChain = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return workerPool.isRunning();
+    }
+}
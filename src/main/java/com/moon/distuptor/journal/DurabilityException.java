@@ -0,0 +1,17 @@
+package com.moon.distuptor.journal;
+
+/**
+ * 持久化已经失败，等待中的序号再也不会变成持久化的
+ * 比如写日志的时候出了IO错误，或者持久化的消费者已经关闭
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class DurabilityException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DurabilityException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,217 @@
+package com.moon.distuptor.journal;
+
+import com.moon.distuptor.Sequence;
+import com.moon.distuptor.Sequencer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 记录已经持久化到磁盘的最大序号，也就是持久化序号
+ * 持久化的消费者每刷一次盘就推进一次持久化序号，一次刷盘可以确认这一批中的所有事件，这就是group commit
+ * 生产者可以阻塞等待自己的序号变成持久化的，也可以拿一个CompletableFuture在持久化之后得到通知
+ * 持久化失败或者持久化的消费者关闭之后调用fail，还没有持久化的等待者都会收到DurabilityException
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class DurabilityTracker {
+
+    /**
+     * 等待持久化时先空转的次数，刷盘通常要几十微秒以上，空转太久没有意义
+     */
+    private static final int SPIN_TRIES = 100;
+
+    private static final class Pending implements Comparable<Pending> {
+        private final long sequence;
+
+        private final CompletableFuture<Long> future;
+
+        Pending(final long sequence, final CompletableFuture<Long> future) {
+            this.sequence = sequence;
+            this.future = future;
+        }
+
+        @Override
+        public int compareTo(final Pending o) {
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+
+    private final Sequence durableSequence = new Sequence(Sequencer.INITIAL_CURSOR_VALUE);
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition durableCondition = lock.newCondition();
+
+    //按序号排序的回调，只在持有锁时访问
+    private final PriorityQueue<Pending> pending = new PriorityQueue<>();
+
+    //第一次失败的原因
+    private volatile Throwable failure;
+
+    /**
+     * 持久化序号，可以作为下游消费者的依赖，比如只给已经持久化的订单发送确认
+     */
+    public Sequence getDurableSequence() {
+        return durableSequence;
+    }
+
+    public boolean isDurable(final long sequence) {
+        return durableSequence.getAcquire() >= sequence;
+    }
+
+    /**
+     * 持久化失败的原因，没有失败时返回null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * 持久化失败或者不会再有持久化的进展时调用，只有第一次调用生效
+     * 所有还在等待的future以异常结束，阻塞的等待者被唤醒并抛出DurabilityException，之后新的等待也会直接失败
+     * 在此之前已经持久化的序号不受影响
+     */
+    public void fail(final Throwable cause) {
+        final List<Pending> failed;
+        lock.lock();
+        try {
+            if (failure != null) {
+                return;
+            }
+            failure = cause;
+            failed = new ArrayList<>(pending);
+            pending.clear();
+            durableCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        final DurabilityException e = new DurabilityException("durability failed", cause);
+        for (Pending p : failed) {
+            p.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 持久化的消费者刷盘之后调用，sequence及之前的事件都已经在磁盘上了
+     */
+    public void advance(final long sequence) {
+        // 多个线程同时推进时只保留最大值，先检查再写入可能让较小的序号覆盖较大的序号，导致持久化序号倒退
+        long current;
+        do {
+            current = durableSequence.get();
+            if (sequence <= current) {
+                return;
+            }
+        }
+        while (!durableSequence.compareAndSet(current, sequence));
+
+        List<Pending> completed = null;
+        lock.lock();
+        try {
+            while (!pending.isEmpty() && pending.peek().sequence <= sequence) {
+                if (completed == null) {
+                    completed = new ArrayList<>();
+                }
+                completed.add(pending.poll());
+            }
+            durableCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        // 在锁外面完成回调，避免用户的回调逻辑拖慢持久化线程获取锁
+        if (completed != null) {
+            for (Pending p : completed) {
+                p.future.complete(p.sequence);
+            }
+        }
+    }
+
+    /**
+     * 返回一个在sequence持久化之后完成的future，已经持久化了就直接返回完成的future
+     * 注意回调默认在持久化线程中执行，耗时的回调应该用thenXxxAsync切换到别的线程
+     */
+    public CompletableFuture<Long> whenDurable(final long sequence) {
+        if (isDurable(sequence)) {
+            return CompletableFuture.completedFuture(sequence);
+        }
+
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            // 加锁之后再检查一次，防止在加入队列之前刚好推进了持久化序号或者已经失败，导致永远不会完成
+            if (isDurable(sequence)) {
+                future.complete(sequence);
+            } else if (failure != null) {
+                future.completeExceptionally(new DurabilityException("durability failed", failure));
+            } else {
+                pending.add(new Pending(sequence, future));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    /**
+     * 阻塞等待sequence持久化，持久化失败时抛出DurabilityException
+     */
+    public void awaitDurable(final long sequence) throws InterruptedException {
+        for (int i = 0; i < SPIN_TRIES; i++) {
+            if (isDurable(sequence)) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+
+        lock.lock();
+        try {
+            while (!isDurable(sequence)) {
+                checkFailure(sequence);
+                durableCondition.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 最多等待timeout，返回sequence是否已经持久化，持久化失败时抛出DurabilityException
+     */
+    public boolean awaitDurable(final long sequence, final long timeout, final TimeUnit unit) throws InterruptedException {
+        if (isDurable(sequence)) {
+            return true;
+        }
+
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!isDurable(sequence)) {
+                checkFailure(sequence);
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = durableCondition.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkFailure(final long sequence) {
+        final Throwable cause = failure;
+        if (cause != null) {
+            throw new DurabilityException("durability failed before sequence " + sequence + " became durable", cause);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.moon.distuptor.journal;
+
+import com.moon.distuptor.EventTranslator;
+import com.moon.distuptor.EventTranslatorOneArg;
+import com.moon.distuptor.RingBuffer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 需要持久化确认的发布方式，发布之后返回事件的序号，生产者再根据序号等待持久化或者注册回调
+ * 环形数组中必须有一个把持久化结果告诉DurabilityTracker的消费者，比如带tracker创建的JournalEventHandler
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class DurablePublisher<T> {
+
+    private final RingBuffer<T> ringBuffer;
+
+    private final DurabilityTracker tracker;
+
+    public DurablePublisher(final RingBuffer<T> ringBuffer, final DurabilityTracker tracker) {
+        this.ringBuffer = ringBuffer;
+        this.tracker = tracker;
+    }
+
+    /**
+     * 发布一个事件，返回它的序号，不等待持久化
+     */
+    public long publishEvent(final EventTranslator<T> translator) {
+        final long sequence = ringBuffer.next();
+        try {
+            translator.translateTo(ringBuffer.get(sequence), sequence);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+        return sequence;
+    }
+
+    public <A> long publishEvent(final EventTranslatorOneArg<T, A> translator, final A arg0) {
+        final long sequence = ringBuffer.next();
+        try {
+            translator.translateTo(ringBuffer.get(sequence), sequence, arg0);
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * 发布一个事件，返回的future在事件持久化之后完成，持久化失败时以DurabilityException结束
+     */
+    public CompletableFuture<Long> publishEventAsync(final EventTranslator<T> translator) {
+        return tracker.whenDurable(publishEvent(translator));
+    }
+
+    public <A> CompletableFuture<Long> publishEventAsync(final EventTranslatorOneArg<T, A> translator, final A arg0) {
+        return tracker.whenDurable(publishEvent(translator, arg0));
+    }
+
+    /**
+     * 发布一个事件，一直阻塞到它持久化为止，持久化失败时抛出DurabilityException
+     */
+    public long publishEventAndAwait(final EventTranslator<T> translator) throws InterruptedException {
+        final long sequence = publishEvent(translator);
+        tracker.awaitDurable(sequence);
+        return sequence;
+    }
+
+    public <A> long publishEventAndAwait(final EventTranslatorOneArg<T, A> translator, final A arg0) throws InterruptedException {
+        final long sequence = publishEvent(translator, arg0);
+        tracker.awaitDurable(sequence);
+        return sequence;
+    }
+
+    public DurabilityTracker getTracker() {
+        return tracker;
+    }
+}
@@ -0,0 +1,246 @@
+package com.moon.distuptor.journal;
+
+import com.moon.distuptor.EventHandler;
+import com.moon.distuptor.EventTranslatorOneArg;
+import com.moon.distuptor.LifecycleAware;
+import com.moon.distuptor.RingBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 把事件写入内存映射日志的消费者，用来在重启之后恢复环形数组中的事件
+ * 日志由目录下若干个固定大小的段文件组成，当前段写满之后换到下一个段
+ * 每条事件只是写入映射的内存，一批事件结束时（endOfBatch）才调用一次force刷盘，不会每个事件都产生系统调用
+ * 启动消费者之后先调用replay把日志中的事件按顺序重新发布到环形数组中，然后再发布新的事件，
+ * 重新发布的这些事件已经在日志中了，这个handler会跳过它们，不会重复写入
+ * 创建时传入DurabilityTracker，每次刷盘之后都会推进持久化序号，配合DurablePublisher可以让生产者等待持久化确认
+ * 写日志或者刷盘失败、以及handler关闭之后，持久化序号不会再前进，这时会调用DurabilityTracker.fail让还在等待的生产者失败
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public class JournalEventHandler<T> implements EventHandler<T>, LifecycleAware {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    /**
+     * 重放时一次批量发布的最大事件个数
+     */
+    private static final int REPLAY_BATCH_SIZE = 256;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final JournalSerializer<T> serializer;
+
+    //可以为null，表示不需要通知持久化进度
+    private final DurabilityTracker tracker;
+
+    //启动时已经存在的段文件，按顺序排列
+    private final List<Path> recoveredSegments;
+
+    private final long recoveredRecords;
+
+    //当前正在写入的段
+    private JournalSegment current;
+
+    private long currentIndex;
+
+    //环形数组中序号小于它的事件是重放出来的，不用再写日志
+    private volatile long replayedCount;
+
+    //连续写入日志的最大序号，只有它之前的事件才能确认为已持久化
+    private long writtenSequence = -1L;
+
+    //有事件写入失败并被异常处理器跳过之后，日志里就有了缺口，之后的事件都不能再确认为已持久化
+    private boolean writeFailed;
+
+    public JournalEventHandler(final Path directory, final int segmentSize, final JournalSerializer<T> serializer) throws IOException {
+        this(directory, segmentSize, serializer, null);
+    }
+
+    public JournalEventHandler(final Path directory, final int segmentSize, final JournalSerializer<T> serializer,
+                               final DurabilityTracker tracker) throws IOException {
+        if (segmentSize <= JournalSegment.HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentSize is too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.serializer = serializer;
+        this.tracker = tracker;
+
+        Files.createDirectories(directory);
+        this.recoveredSegments = listSegments(directory);
+
+        long records = 0;
+        for (int i = 0; i < recoveredSegments.size() - 1; i++) {
+            try (JournalSegment segment = JournalSegment.open(recoveredSegments.get(i), segmentSize, false)) {
+                records += segment.getRecords();
+            }
+        }
+        if (recoveredSegments.isEmpty()) {
+            currentIndex = 0;
+            current = JournalSegment.open(segmentPath(0), segmentSize, true);
+        } else {
+            // 从最后一个段的最后一条完整记录之后继续写
+            final Path last = recoveredSegments.get(recoveredSegments.size() - 1);
+            currentIndex = indexOf(last);
+            current = JournalSegment.open(last, segmentSize, true);
+            records += current.getRecords();
+        }
+        this.recoveredRecords = records;
+    }
+
+    /**
+     * 把日志中的所有事件按写入的顺序重新发布到环形数组中，必须在发布其他任何事件之前调用
+     * 调用之前所有消费者（包括这个handler自己的处理器）必须已经在运行，比如先调用Disruptor.start()，
+     * 否则重放的事件超过环形数组的大小时，publishEvents会因为没有消费者推进进度而一直阻塞
+     *
+     * @return 重新发布的事件个数
+     */
+    public long replay(final RingBuffer<T> ringBuffer) throws IOException {
+        final EventTranslatorOneArg<T, ByteBuffer> translator =
+                (event, sequence, payload) -> serializer.deserialize(payload, event);
+        final ByteBuffer[] batch = new ByteBuffer[Math.min(REPLAY_BATCH_SIZE, ringBuffer.getBufferSize())];
+        final int[] size = {0};
+        final long[] count = {0};
+
+        // 只重放启动时已经存在的记录，重放期间新写入的记录不在其中
+        replayedCount = recoveredRecords;
+        for (Path path : recoveredSegments) {
+            try (JournalSegment segment = JournalSegment.open(path, segmentSize, false)) {
+                segment.forEach((sequence, payload) -> {
+                    if (count[0] + size[0] >= recoveredRecords) {
+                        return;
+                    }
+                    batch[size[0]++] = payload;
+                    if (size[0] == batch.length) {
+                        ringBuffer.publishEvents(translator, 0, size[0], batch);
+                        count[0] += size[0];
+                        size[0] = 0;
+                    }
+                });
+            }
+        }
+        if (size[0] > 0) {
+            ringBuffer.publishEvents(translator, 0, size[0], batch);
+            count[0] += size[0];
+        }
+        return count[0];
+    }
+
+    /**
+     * 启动时日志中已有的事件个数
+     */
+    public long getRecoveredRecordCount() {
+        return recoveredRecords;
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception {
+        try {
+            if (sequence >= replayedCount) {
+                if (!current.append(sequence, event, serializer)) {
+                    roll();
+                    if (!current.append(sequence, event, serializer)) {
+                        throw new IllegalStateException("Event at sequence " + sequence + " does not fit in a journal segment of " + segmentSize + " bytes");
+                    }
+                }
+            }
+            if (!writeFailed) {
+                writtenSequence = sequence;
+            }
+
+            if (endOfBatch) {
+                flush(writtenSequence);
+            }
+        } catch (final Throwable e) {
+            if (!writeFailed) {
+                writeFailed = true;
+                failTracker(e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 一批事件结束时调用，把当前段刷到磁盘，一次刷盘确认整批事件
+     * sequence是连续写入日志的最大序号，写入失败过之后它就不再前进，持久化序号也就停在缺口之前
+     */
+    protected void flush(final long sequence) throws IOException {
+        current.force();
+        if (tracker != null) {
+            tracker.advance(sequence);
+        }
+    }
+
+    @Override
+    public void onStart() {
+    }
+
+    @Override
+    public void onShutdown() {
+        try {
+            current.force();
+            current.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // 关闭之后不会再刷盘，还没有持久化的序号永远等不到了
+            if (tracker != null) {
+                tracker.fail(new IllegalStateException("Journal handler is shut down"));
+            }
+        }
+    }
+
+    /**
+     * 出现缺口之前已经写入的事件先尽量刷盘确认，然后让其余的等待者失败
+     */
+    private void failTracker(final Throwable cause) {
+        if (tracker == null) {
+            return;
+        }
+        try {
+            flush(writtenSequence);
+        } catch (final Throwable ignored) {
+            // 刷盘也失败了，写入的事件都不能确认，全部按失败处理
+        }
+        tracker.fail(cause);
+    }
+
+    private void roll() throws IOException {
+        current.force();
+        current.close();
+        currentIndex++;
+        current = JournalSegment.open(segmentPath(currentIndex), segmentSize, true);
+    }
+
+    private Path segmentPath(final long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static long indexOf(final Path segment) {
+        final String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static List<Path> listSegments(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            final List<Path> segments = new ArrayList<>();
+            files.filter(p -> {
+                final String name = p.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().forEach(segments::add);
+            return segments;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.moon.distuptor.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * 一个通过FileChannel.map映射到内存的日志段文件
+ * 记录首尾相连，每条记录的格式是：4字节长度、4字节CRC32C校验和、8字节序号、记录内容，按8字节对齐
+ * 文件映射时会用0填充，所以读到长度为0就是数据的末尾；校验和不对说明是崩溃时没有写完整的记录，也当作末尾
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+final class JournalSegment implements Closeable {
+
+    static final int HEADER_BYTES = 16;
+
+    private static final int LENGTH_OFFSET = 0;
+    private static final int CRC_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+
+    /**
+     * 遍历记录的回调，payload的[position, limit)就是记录内容
+     */
+    interface RecordConsumer {
+        void accept(long sequence, ByteBuffer payload) throws IOException;
+    }
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final CRC32C crc = new CRC32C();
+
+    //下一条记录的写入位置
+    private int position;
+
+    //已经force到磁盘的位置
+    private int flushedPosition;
+
+    //有效记录的条数
+    private long records;
+
+    //最后一条有效记录的序号
+    private long lastSequence = -1L;
+
+    private JournalSegment(final Path path, final FileChannel channel, final MappedByteBuffer buffer, final boolean writable) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        scan();
+        if (writable) {
+            clearTail();
+        }
+        this.flushedPosition = position;
+    }
+
+    /**
+     * 打开或者创建一个段文件，writable为false时只读映射已有的内容
+     */
+    static JournalSegment open(final Path path, final int segmentSize, final boolean writable) throws IOException {
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        if (writable) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } else {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), segmentSize));
+        }
+        return new JournalSegment(path, channel, buffer, writable);
+    }
+
+    /**
+     * 追加一条记录，剩余空间放不下就返回false
+     */
+    <T> boolean append(final long sequence, final T event, final JournalSerializer<T> serializer) {
+        final int start = position + HEADER_BYTES;
+        if (start > buffer.capacity()) {
+            return false;
+        }
+
+        buffer.limit(buffer.capacity()).position(start);
+        try {
+            serializer.serialize(event, buffer);
+        } catch (final BufferOverflowException e) {
+            return false;
+        }
+        final int length = buffer.position() - start;
+        if (length == 0) {
+            throw new IllegalStateException("JournalSerializer must write at least one byte");
+        }
+
+        buffer.putLong(position + SEQUENCE_OFFSET, sequence);
+        buffer.putInt(position + CRC_OFFSET, checksum(position, length));
+        // 长度最后写，读到非0的长度时，记录的其他部分已经在同一个映射中写好了
+        buffer.putInt(position + LENGTH_OFFSET, length);
+
+        position = align(start + length);
+        records++;
+        lastSequence = sequence;
+        return true;
+    }
+
+    /**
+     * 把上次force之后写入的内容刷到磁盘
+     */
+    void force() {
+        if (position > flushedPosition) {
+            buffer.force(flushedPosition, Math.min(position, buffer.capacity()) - flushedPosition);
+            flushedPosition = position;
+        }
+    }
+
+    /**
+     * 按顺序遍历所有有效的记录
+     */
+    void forEach(final RecordConsumer consumer) throws IOException {
+        int offset = 0;
+        while (offset < position) {
+            final int length = buffer.getInt(offset + LENGTH_OFFSET);
+            final long sequence = buffer.getLong(offset + SEQUENCE_OFFSET);
+            consumer.accept(sequence, buffer.slice(offset + HEADER_BYTES, length).order(buffer.order()));
+            offset = align(offset + HEADER_BYTES + length);
+        }
+    }
+
+    long getRecords() {
+        return records;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 找到最后一条完整记录的末尾，作为继续写入的位置
+     */
+    private void scan() {
+        final int capacity = buffer.capacity();
+        int offset = 0;
+        while (offset + HEADER_BYTES <= capacity) {
+            final int length = buffer.getInt(offset + LENGTH_OFFSET);
+            if (length <= 0 || length > capacity - offset - HEADER_BYTES) {
+                break;
+            }
+            if (buffer.getInt(offset + CRC_OFFSET) != checksum(offset, length)) {
+                break;
+            }
+            records++;
+            lastSequence = buffer.getLong(offset + SEQUENCE_OFFSET);
+            offset = align(offset + HEADER_BYTES + length);
+        }
+        position = offset;
+    }
+
+    /**
+     * 恢复时停在了一条没写完或者校验和不对的记录上，它后面可能还残留着以前写过的有效记录
+     * 新记录只会覆盖其中一部分，下次恢复时可能越过新记录读到这些旧记录，所以在继续写入之前把末尾之后的内容全部清零
+     * 末尾的记录头是全0也不能说明后面都是0，页面可以不按顺序落盘，崩溃后前面是0后面却留着旧数据，所以每次打开都要清理
+     */
+    private void clearTail() {
+        final int capacity = buffer.capacity();
+        if (position >= capacity) {
+            return;
+        }
+
+        for (int offset = position; offset < capacity; ) {
+            if (capacity - offset >= Long.BYTES) {
+                buffer.putLong(offset, 0L);
+                offset += Long.BYTES;
+            } else {
+                buffer.put(offset, (byte) 0);
+                offset++;
+            }
+        }
+        buffer.force(position, capacity - position);
+    }
+
+    /**
+     * 校验和覆盖序号和记录内容，它们在记录中是连续存放的
+     */
+    private int checksum(final int recordOffset, final int length) {
+        crc.reset();
+        crc.update(buffer.slice(recordOffset + SEQUENCE_OFFSET, HEADER_BYTES - SEQUENCE_OFFSET + length));
+        return (int) crc.getValue();
+    }
+
+    private static int align(final int offset) {
+        return (offset + 7) & ~7;
+    }
+}
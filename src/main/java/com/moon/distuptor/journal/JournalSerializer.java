@@ -0,0 +1,23 @@
+package com.moon.distuptor.journal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 事件和日志中二进制记录之间的转换，由使用者提供
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public interface JournalSerializer<T> {
+
+    /**
+     * 从dst当前的position开始写入事件，写多少由position的移动决定
+     * 剩余空间不够时直接让ByteBuffer抛出BufferOverflowException，日志会换到下一个段文件重新写入
+     */
+    void serialize(T event, ByteBuffer dst);
+
+    /**
+     * 把src中[position, limit)的内容还原到环形数组预先分配好的事件对象中
+     */
+    void deserialize(ByteBuffer src, T event);
+}
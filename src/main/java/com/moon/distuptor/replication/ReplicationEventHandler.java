@@ -0,0 +1,183 @@
+package com.moon.distuptor.replication;
+
+import com.moon.distuptor.EventHandler;
+import com.moon.distuptor.LifecycleAware;
+import com.moon.distuptor.Sequence;
+import com.moon.distuptor.journal.DurabilityTracker;
+import com.moon.distuptor.journal.JournalSerializer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 把主节点环形数组中的事件通过SocketChannel复制给热备节点的消费者
+ * 每个事件编码成一帧：序号、长度、保留字段，后面跟着序列化的内容，帧先攒在本地，
+ * 一批事件结束时（endOfBatch）或者攒满之后用一次gathering write发出去，不会每个事件都产生系统调用
+ * 备节点的ReplicationReceiver每应用完一批事件就回一个确认，内容是已经应用的最大序号
+ * 创建时传入ThreadFactory就会启动一个确认线程读取这些确认，推进这个handler自己持有的确认进度，主节点可以据此等待复制完成：
+ * 把getAcknowledgedSequence加入环形数组的gatingSequences，未确认的事件就不会超过环形数组的容量；
+ * 或者把getAckTracker交给DurablePublisher，让生产者等待自己的事件被备节点确认
+ * 确认进度表示的是"已经复制"，和日志的持久化序号不是一回事，所以由handler自己创建，不能和JournalEventHandler共用同一个DurabilityTracker
+ * 连接断开之后不会再有确认，确认线程会调用DurabilityTracker.fail，让还在等待确认的生产者失败
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public class ReplicationEventHandler<T> implements EventHandler<T>, LifecycleAware {
+
+    /**
+     * 帧头：序号8字节，长度4字节，保留4字节
+     */
+    static final int FRAME_HEADER_BYTES = 16;
+
+    static final int ACK_BYTES = 8;
+
+    /**
+     * 一次gathering write最多携带的帧数
+     */
+    private static final int MAX_FRAMES_PER_WRITE = 64;
+
+    private final SocketChannel channel;
+
+    private final JournalSerializer<T> serializer;
+
+    //为null表示不需要处理备节点的确认
+    private final ThreadFactory ackThreadFactory;
+
+    //备节点的确认进度，只有确认线程会推进它
+    private final DurabilityTracker ackTracker;
+
+    private final ByteBuffer[] frames;
+
+    //已经编码但还没有发出去的帧数
+    private int pendingFrames;
+
+    private Thread ackReader;
+
+    /**
+     * @param maxEventSize 一个事件序列化之后的最大字节数，备节点要使用同样的值
+     */
+    public ReplicationEventHandler(final SocketChannel channel, final int maxEventSize, final JournalSerializer<T> serializer) {
+        this(channel, maxEventSize, serializer, null);
+    }
+
+    /**
+     * @param ackThreadFactory 用来创建确认线程
+     */
+    public ReplicationEventHandler(final SocketChannel channel, final int maxEventSize, final JournalSerializer<T> serializer,
+                                   final ThreadFactory ackThreadFactory) {
+        if (maxEventSize < 1) {
+            throw new IllegalArgumentException("maxEventSize must be > 0");
+        }
+        this.channel = channel;
+        this.serializer = serializer;
+        this.ackThreadFactory = ackThreadFactory;
+        this.ackTracker = ackThreadFactory == null ? null : new DurabilityTracker();
+        this.frames = new ByteBuffer[MAX_FRAMES_PER_WRITE];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = ByteBuffer.allocateDirect(FRAME_HEADER_BYTES + maxEventSize);
+        }
+    }
+
+    /**
+     * 备节点已经确认的最大序号，没有传入ThreadFactory时返回null
+     */
+    public Sequence getAcknowledgedSequence() {
+        return ackTracker == null ? null : ackTracker.getDurableSequence();
+    }
+
+    /**
+     * 用来等待备节点确认的tracker，没有传入ThreadFactory时返回null
+     */
+    public DurabilityTracker getAckTracker() {
+        return ackTracker;
+    }
+
+    @Override
+    public void onEvent(final T event, final long sequence, final boolean endOfBatch) throws Exception {
+        final ByteBuffer frame = frames[pendingFrames];
+        frame.clear();
+        frame.position(FRAME_HEADER_BYTES);
+        serializer.serialize(event, frame);
+        frame.putLong(0, sequence);
+        frame.putInt(8, frame.position() - FRAME_HEADER_BYTES);
+        frame.putInt(12, 0);
+        frame.flip();
+        pendingFrames++;
+
+        if (endOfBatch || pendingFrames == frames.length) {
+            send();
+        }
+    }
+
+    private void send() throws IOException {
+        final ByteBuffer last = frames[pendingFrames - 1];
+        try {
+            // 阻塞模式下一次write也可能只写出一部分，写到最后一帧没有剩余为止
+            while (last.hasRemaining()) {
+                channel.write(frames, 0, pendingFrames);
+            }
+        } finally {
+            // 写失败时这些帧交给异常处理器一起丢弃，下一个事件从第一帧重新开始，否则会越过帧数组的末尾
+            pendingFrames = 0;
+        }
+    }
+
+    @Override
+    public void onStart() {
+        if (ackThreadFactory != null) {
+            ackReader = ackThreadFactory.newThread(this::readAcks);
+            ackReader.start();
+        }
+    }
+
+    @Override
+    public void onShutdown() {
+        try {
+            // 关闭连接，确认线程的read会随之返回
+            channel.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            joinAckReader();
+        }
+    }
+
+    private void joinAckReader() {
+        if (ackReader == null) {
+            return;
+        }
+        try {
+            ackReader.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            ackReader = null;
+        }
+    }
+
+    /**
+     * 确认线程，读取备节点发回的序号并推进DurabilityTracker，连接断开后让tracker失败并退出
+     */
+    private void readAcks() {
+        final ByteBuffer ack = ByteBuffer.allocate(ACK_BYTES);
+        try {
+            while (true) {
+                ack.clear();
+                while (ack.hasRemaining()) {
+                    if (channel.read(ack) < 0) {
+                        throw new EOFException("Replica closed the connection");
+                    }
+                }
+                ackTracker.advance(ack.getLong(0));
+            }
+        } catch (final IOException e) {
+            // 包括onShutdown关闭连接的情况，之后都不会再有确认了
+            ackTracker.fail(e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.moon.distuptor.replication;
+
+import com.moon.distuptor.RingBuffer;
+import com.moon.distuptor.journal.JournalSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * 热备节点上接收复制数据的组件，在单独的线程中运行
+ * 从连接中读出ReplicationEventHandler发来的帧，按照原来的序号顺序重新发布到本地的环形数组，
+ * 每应用完一次读到的所有完整帧，就把已经应用的最大序号发回主节点作为确认
+ * 本地环形数组的序号和主节点完全一致，所以要求本地环形数组在复制期间没有别的生产者，并且和主节点从同一个序号开始
+ * 主节点失效后调用halt停止接收，本地环形数组里已经有全部确认过的事件，备节点直接在它上面继续发布就可以接管，不需要重放日志
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class ReplicationReceiver<T> implements Runnable {
+
+    private static final int MIN_INPUT_BYTES = 64 * 1024;
+
+    private final SocketChannel channel;
+
+    private final RingBuffer<T> ringBuffer;
+
+    private final JournalSerializer<T> serializer;
+
+    private final int maxEventSize;
+
+    private final ByteBuffer input;
+
+    private final ByteBuffer ack = ByteBuffer.allocate(ReplicationEventHandler.ACK_BYTES);
+
+    private volatile boolean running;
+
+    //已经重新发布到本地环形数组的最大序号
+    private volatile long lastAppliedSequence;
+
+    public ReplicationReceiver(final SocketChannel channel, final RingBuffer<T> ringBuffer, final int maxEventSize,
+                               final JournalSerializer<T> serializer) {
+        if (maxEventSize < 1) {
+            throw new IllegalArgumentException("maxEventSize must be > 0");
+        }
+        this.channel = channel;
+        this.ringBuffer = ringBuffer;
+        this.serializer = serializer;
+        this.maxEventSize = maxEventSize;
+        this.input = ByteBuffer.allocateDirect(Math.max(MIN_INPUT_BYTES, 2 * (ReplicationEventHandler.FRAME_HEADER_BYTES + maxEventSize)));
+        this.lastAppliedSequence = ringBuffer.getCursor();
+    }
+
+    public long getLastAppliedSequence() {
+        return lastAppliedSequence;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void run() {
+        running = true;
+        try {
+            while (running) {
+                if (channel.read(input) < 0) {
+                    // 主节点关闭了连接
+                    break;
+                }
+                input.flip();
+                // 一次最多应用bufferSize个帧，要把读到的完整帧全部应用完再去读，否则剩下的帧要等主节点再发数据才会被处理
+                boolean applied = false;
+                while (apply()) {
+                    applied = true;
+                }
+                input.compact();
+                if (applied) {
+                    acknowledge();
+                }
+            }
+        } catch (final IOException e) {
+            if (running) {
+                throw new UncheckedIOException(e);
+            }
+        } finally {
+            running = false;
+            // 不管是主节点断开、IO错误还是序号对不上，接收线程退出之后连接都没用了，关闭它让主节点的确认线程也能退出
+            closeQuietly();
+        }
+    }
+
+    /**
+     * 停止接收并关闭连接，之后本地环形数组可以交给新的生产者
+     */
+    public void halt() {
+        running = false;
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 把input中所有完整的帧一次性发布到环形数组，一批不超过环形数组的容量
+     *
+     * @return 是否发布了事件
+     */
+    private boolean apply() {
+        final int start = input.position();
+        final int bufferSize = ringBuffer.getBufferSize();
+        long expected = lastAppliedSequence + 1;
+
+        // 先数出完整的帧，同时检查序号是否连续，有缺口说明两边已经不一致了，不能再应用
+        int count = 0;
+        int position = start;
+        while (count < bufferSize && input.limit() - position >= ReplicationEventHandler.FRAME_HEADER_BYTES) {
+            final long sequence = input.getLong(position);
+            final int length = input.getInt(position + 8);
+            if (length < 0 || length > maxEventSize) {
+                throw new IllegalStateException("Corrupt replication frame at sequence " + sequence + ", length " + length);
+            }
+            if (input.limit() - position < ReplicationEventHandler.FRAME_HEADER_BYTES + length) {
+                break;
+            }
+            if (sequence != expected) {
+                throw new IllegalStateException("Replication gap: expected sequence " + expected + " but received " + sequence);
+            }
+            expected++;
+            count++;
+            position += ReplicationEventHandler.FRAME_HEADER_BYTES + length;
+        }
+        if (count == 0) {
+            return false;
+        }
+
+        // 本地环形数组有别的生产者发布过事件，两边的序号已经对不上了，在申请序号之前就拒绝
+        if (ringBuffer.getCursor() != lastAppliedSequence) {
+            throw outOfStep(ringBuffer.getCursor() + 1);
+        }
+        final long hi = ringBuffer.next(count);
+        final long lo = hi - count + 1;
+        if (lo != lastAppliedSequence + 1) {
+            // 申请之后才发现对不上，这些槽位里是旧数据，绝不能发布给本地的消费者
+            throw outOfStep(lo);
+        }
+        position = start;
+        for (long sequence = lo; sequence <= hi; sequence++) {
+            final int length = input.getInt(position + 8);
+            final int payload = position + ReplicationEventHandler.FRAME_HEADER_BYTES;
+            serializer.deserialize(input.slice(payload, length), ringBuffer.get(sequence));
+            position = payload + length;
+        }
+        // 所有事件都还原成功之后才发布，还原失败时接收线程直接退出，同样不会发布没有写好的槽位
+        ringBuffer.publish(lo, hi);
+        input.position(position);
+        lastAppliedSequence = hi;
+        return true;
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            // 已经在退出了，关闭失败也没有别的办法
+        }
+    }
+
+    private IllegalStateException outOfStep(final long claimed) {
+        return new IllegalStateException("Local ring is out of step with the primary: next sequence is " + claimed
+                + " but expected " + (lastAppliedSequence + 1));
+    }
+
+    private void acknowledge() throws IOException {
+        ack.clear();
+        ack.putLong(0, lastAppliedSequence);
+        while (ack.hasRemaining()) {
+            channel.write(ack);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.moon.distuptor.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建绑定了CPU核的线程，可以交给Disruptor或者BasicExecutor使用，也可以用来创建生产者线程
+ * 依次把新线程绑定到给定的核上，线程数超过核数时从头开始轮流分配
+ * 消费者线程一直运行在同一个核上，Sequence和RingBuffer的缓存行填充保护的缓存数据才不会因为线程迁移而失效
+ * 这些核最好通过isolcpus等方式从操作系统的调度中隔离出来，否则其他线程仍然可能被调度到这些核上
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class AffinityThreadFactory implements ThreadFactory {
+
+    private final ThreadFactory delegate;
+
+    private final int[] cpus;
+
+    private final AtomicInteger nextCpu = new AtomicInteger();
+
+    public AffinityThreadFactory(final int... cpus) {
+        this(Executors.defaultThreadFactory(), cpus);
+    }
+
+    public AffinityThreadFactory(final ThreadFactory delegate, final int... cpus) {
+        if (cpus.length == 0) {
+            throw new IllegalArgumentException("at least one cpu is required");
+        }
+        this.delegate = delegate;
+        this.cpus = cpus.clone();
+    }
+
+    @Override
+    public Thread newThread(final Runnable r) {
+        final int cpu = cpus[Math.floorMod(nextCpu.getAndIncrement(), cpus.length)];
+        return delegate.newThread(ThreadAffinity.pinned(r, cpu));
+    }
+}
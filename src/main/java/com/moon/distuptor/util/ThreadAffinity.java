@@ -0,0 +1,157 @@
+package com.moon.distuptor.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * 把当前线程绑定到指定的CPU核上，通过JDK的外部函数接口直接调用Linux的sched_setaffinity，不需要额外编译本地库
+ * 外部函数接口在JDK 21中还是预览API，直接引用需要打开--enable-preview，所以这里通过反射来绑定，
+ * 在JDK 21和正式发布外部函数接口的JDK 22及以后的版本上都可以使用
+ * 不是Linux或者绑定失败时，isSupported返回false，设置亲和性的方法什么都不做
+ * 调用本地函数属于受限操作，启动时加上--enable-native-access=ALL-UNNAMED可以去掉JVM打印的警告
+ * 虚拟线程不能绑定，sched_setaffinity绑定的是它当时所在的载体线程，这个载体线程会一直被绑在这些核上，影响所有共享它的虚拟线程
+ *
+ * @author Chanmoey
+ * Create at 2026/10/17
+ */
+public final class ThreadAffinity {
+
+    private static final Logger LOGGER = Logger.getLogger(ThreadAffinity.class.getName());
+
+    /**
+     * cpu_set_t的大小，glibc默认支持1024个CPU
+     */
+    private static final int CPU_SET_BYTES = 128;
+
+    private static final int MAX_CPUS = CPU_SET_BYTES * Byte.SIZE;
+
+    /**
+     * int sched_setaffinity(pid_t pid, size_t cpusetsize, const cpu_set_t *mask)
+     */
+    private static final MethodHandle SCHED_SETAFFINITY;
+
+    private static final Method ARENA_OF_CONFINED;
+
+    private static final Method ARENA_ALLOCATE;
+
+    private static final Method SEGMENT_SET_LONG;
+
+    private static final Object JAVA_LONG;
+
+    static {
+        MethodHandle schedSetAffinity = null;
+        Method arenaOfConfined = null;
+        Method arenaAllocate = null;
+        Method segmentSetLong = null;
+        Object javaLong = null;
+        if (System.getProperty("os.name", "").toLowerCase().contains("linux")) {
+            try {
+                final Class<?> linkerClass = Class.forName("java.lang.foreign.Linker");
+                final Class<?> linkerOptionClass = Class.forName("java.lang.foreign.Linker$Option");
+                final Class<?> symbolLookupClass = Class.forName("java.lang.foreign.SymbolLookup");
+                final Class<?> functionDescriptorClass = Class.forName("java.lang.foreign.FunctionDescriptor");
+                final Class<?> memoryLayoutClass = Class.forName("java.lang.foreign.MemoryLayout");
+                final Class<?> memorySegmentClass = Class.forName("java.lang.foreign.MemorySegment");
+                final Class<?> valueLayoutClass = Class.forName("java.lang.foreign.ValueLayout");
+                final Class<?> arenaClass = Class.forName("java.lang.foreign.Arena");
+
+                final Object linker = linkerClass.getMethod("nativeLinker").invoke(null);
+                final Object lookup = linkerClass.getMethod("defaultLookup").invoke(linker);
+                final Optional<?> symbol = (Optional<?>) symbolLookupClass.getMethod("find", String.class)
+                        .invoke(lookup, "sched_setaffinity");
+                if (symbol.isPresent()) {
+                    final Object javaInt = valueLayoutClass.getField("JAVA_INT").get(null);
+                    javaLong = valueLayoutClass.getField("JAVA_LONG").get(null);
+                    final Object address = valueLayoutClass.getField("ADDRESS").get(null);
+
+                    final Object argLayouts = Array.newInstance(memoryLayoutClass, 3);
+                    Array.set(argLayouts, 0, javaInt);
+                    Array.set(argLayouts, 1, javaLong);
+                    Array.set(argLayouts, 2, address);
+                    final Object descriptor = functionDescriptorClass
+                            .getMethod("of", memoryLayoutClass, argLayouts.getClass())
+                            .invoke(null, javaInt, argLayouts);
+
+                    final Object noOptions = Array.newInstance(linkerOptionClass, 0);
+                    schedSetAffinity = (MethodHandle) linkerClass
+                            .getMethod("downcallHandle", memorySegmentClass, functionDescriptorClass, noOptions.getClass())
+                            .invoke(linker, symbol.get(), descriptor, noOptions);
+
+                    arenaOfConfined = arenaClass.getMethod("ofConfined");
+                    arenaAllocate = arenaClass.getMethod("allocate", long.class);
+                    segmentSetLong = memorySegmentClass.getMethod("set",
+                            Class.forName("java.lang.foreign.ValueLayout$OfLong"), long.class, long.class);
+                }
+            } catch (final Throwable e) {
+                // 当前JDK没有外部函数接口，或者被安全策略禁止了，退化为不绑定
+                schedSetAffinity = null;
+            }
+        }
+
+        SCHED_SETAFFINITY = schedSetAffinity;
+        ARENA_OF_CONFINED = arenaOfConfined;
+        ARENA_ALLOCATE = arenaAllocate;
+        SEGMENT_SET_LONG = segmentSetLong;
+        JAVA_LONG = javaLong;
+    }
+
+    private ThreadAffinity() {
+    }
+
+    /**
+     * 当前平台是否支持设置线程的CPU亲和性
+     */
+    public static boolean isSupported() {
+        return SCHED_SETAFFINITY != null;
+    }
+
+    /**
+     * 把调用这个方法的线程绑定到指定的CPU核上，传入多个核时线程可以在这几个核之间调度
+     *
+     * @return 绑定成功返回true，不支持、当前是虚拟线程或者系统调用失败（比如核编号不存在）返回false
+     */
+    public static boolean setCurrentThreadAffinity(final int... cpus) {
+        if (SCHED_SETAFFINITY == null || cpus.length == 0) {
+            return false;
+        }
+        final Thread thread = Thread.currentThread();
+        if (thread.isVirtual()) {
+            LOGGER.warning("Skipping CPU affinity for virtual thread " + thread + ", it would pin the shared carrier thread");
+            return false;
+        }
+
+        final long[] mask = new long[CPU_SET_BYTES / Long.BYTES];
+        for (final int cpu : cpus) {
+            if (cpu < 0 || cpu >= MAX_CPUS) {
+                throw new IllegalArgumentException("cpu must be in [0, " + MAX_CPUS + "): " + cpu);
+            }
+            mask[cpu >>> 6] |= 1L << (cpu & 63);
+        }
+
+        try (AutoCloseable arena = (AutoCloseable) ARENA_OF_CONFINED.invoke(null)) {
+            final Object cpuSet = ARENA_ALLOCATE.invoke(arena, (long) CPU_SET_BYTES);
+            for (int i = 0; i < mask.length; i++) {
+                SEGMENT_SET_LONG.invoke(cpuSet, JAVA_LONG, (long) i * Long.BYTES, mask[i]);
+            }
+            // pid传0表示调用者自己所在的线程
+            final int result = (int) SCHED_SETAFFINITY.invokeWithArguments(0, (long) CPU_SET_BYTES, cpuSet);
+            return result == 0;
+        } catch (final Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 包装一个任务，任务开始执行时先把执行它的线程绑定到指定的CPU核上
+     */
+    public static Runnable pinned(final Runnable task, final int... cpus) {
+        final int[] copy = cpus.clone();
+        return () -> {
+            setCurrentThreadAffinity(copy);
+            task.run();
+        };
+    }
+}
@@ -2,10 +2,6 @@ package com.moon.distuptor.util;
 
 import com.moon.distuptor.EventProcessor;
 import com.moon.distuptor.Sequence;
-import sun.misc.Unsafe;
-
-import java.lang.invoke.MethodHandles;
-import java.lang.reflect.Field;
 
 public final class Util {
     public static int ceilingNextPowerOfTwo(final int x) {
@@ -20,7 +16,8 @@ public final class Util {
 
     public static long getMinimumSequence(final Sequence[] sequences, long minimum) {
         for (int i = 0, n = sequences.length; i < n; i++) {
-            long value = sequences[i].get();
+            // 只需要看到消费者发布的进度，acquire读就够了
+            long value = sequences[i].getAcquire();
             minimum = Math.min(minimum, value);
         }
 
@@ -37,25 +34,6 @@ public final class Util {
         return sequences;
     }
 
-    private static final Unsafe THE_UNSAFE;
-
-    static {
-        try {
-            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(Unsafe.class, MethodHandles.lookup());
-            Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
-            theUnsafe.setAccessible(true);
-            THE_UNSAFE = (Unsafe) lookup.unreflectGetter(theUnsafe).invokeExact();
-        } catch (Throwable e) {
-            throw new RuntimeException("Unable to load unsafe", e);
-        }
-    }
-
-
-    public static Unsafe getUnsafe() {
-        return THE_UNSAFE;
-    }
-
-
     public static int log2(int i) {
         int r = 0;
         while ((i >>= 1) != 0) {